@@ -0,0 +1,96 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.bsr.domain.Author;
+import one.microstream.bsr.repository.AuthorRepository;
+
+/**
+ * Lookups, searches and batch inserts of the {@link AuthorRepository}, depending on the number of stored authors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class AuthorRepositoryBenchmark
+{
+	@Param({"10000", "1000000", "10000000"})
+	public int size;
+
+	@Param({"1000"})
+	public int batchSize;
+
+	@Param({"last12"})
+	public String name;
+
+	private BenchmarkStorage storage;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		this.storage = new BenchmarkStorage();
+		this.storage.seedAuthors(this.size);
+		this.nextId = this.size + 1L;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		this.storage.close();
+	}
+
+	private long randomId()
+	{
+		return ThreadLocalRandom.current().nextLong(1L, this.size + 1L);
+	}
+
+	@Benchmark
+	public Author getAuthorByEmail()
+	{
+		return this.storage.authors.getAuthorByEmail(BenchmarkData.author(this.randomId()).getEmail());
+	}
+
+	@Benchmark
+	public Author getAuthorById()
+	{
+		return this.storage.authors.getAuthorById(this.randomId());
+	}
+
+	@Benchmark
+	public List<Author> searchAuthorsByName()
+	{
+		return this.storage.authors.searchAuthorsByName(this.name);
+	}
+
+	@Benchmark
+	public void insertAll()
+	{
+		final List<Author> batch = new ArrayList<>(this.batchSize);
+		for (int i = 0; i < this.batchSize; i++)
+		{
+			batch.add(BenchmarkData.author(this.nextId++));
+		}
+		this.storage.authors.insertAll(batch);
+	}
+}
@@ -0,0 +1,86 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import one.microstream.bsr.domain.Address;
+import one.microstream.bsr.domain.Author;
+import one.microstream.bsr.domain.Book;
+import one.microstream.bsr.domain.Publisher;
+
+final class BenchmarkData
+{
+	private static final String[] WORDS = {
+		"night", "river", "garden", "empire", "shadow", "winter", "silent", "stone", "paper", "ocean", "iron",
+		"golden", "last", "hidden", "crown", "forest", "glass", "storm", "letter", "journey"
+	};
+
+	private BenchmarkData()
+	{
+	}
+
+	static Author author(final long id)
+	{
+		return new Author(
+			id,
+			"author" + id + "@example.com",
+			"First" + id,
+			"Last" + id,
+			List.of(new Address("Street " + id, null, "12345", "City", "Country"))
+		);
+	}
+
+	static Publisher publisher(final long id)
+	{
+		return new Publisher(
+			id,
+			"publisher" + id + "@example.com",
+			"Company " + WORDS[(int)(id % WORDS.length)] + " " + id,
+			List.of(new Address("Street " + id, null, "12345", "City", "Country"))
+		);
+	}
+
+	static String isbn(final long id)
+	{
+		return "978-%010d".formatted(id);
+	}
+
+	static String title(final long id)
+	{
+		return "The %s %s of %s".formatted(
+			WORDS[(int)(id % WORDS.length)],
+			WORDS[(int)(id / WORDS.length % WORDS.length)],
+			WORDS[(int)(id / (WORDS.length * WORDS.length) % WORDS.length)]
+		) + " " + id;
+	}
+
+	static Book book(final long id, final Author author, final Publisher publisher)
+	{
+		return new Book(id, isbn(id), title(id), LocalDate.of(2000, 1, 1), 1, 10, 1999, author, publisher);
+	}
+
+	static List<Book> books(final long firstId, final int count, final Author author, final Publisher publisher)
+	{
+		return LongStream.range(firstId, firstId + count).mapToObj(id -> book(id, author, publisher)).toList();
+	}
+
+	static Path tempDirectory() throws IOException
+	{
+		return Files.createTempDirectory("bsr-benchmark");
+	}
+
+	static void delete(final Path directory) throws IOException
+	{
+		try (final var files = Files.walk(directory))
+		{
+			for (final var file : files.toList().reversed())
+			{
+				Files.delete(file);
+			}
+		}
+	}
+}
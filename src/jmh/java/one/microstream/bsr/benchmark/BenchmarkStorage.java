@@ -0,0 +1,137 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.microstream.bsr.ChunkResidencyManager;
+import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.config.ChunkSizeConfiguration;
+import one.microstream.bsr.config.GroupCommitConfiguration;
+import one.microstream.bsr.config.OptimisticReadConfiguration;
+import one.microstream.bsr.config.SearchCacheConfiguration;
+import one.microstream.bsr.domain.Author;
+import one.microstream.bsr.domain.Book;
+import one.microstream.bsr.domain.Publisher;
+import one.microstream.bsr.metrics.LockMetrics;
+import one.microstream.bsr.metrics.StoreMetrics;
+import one.microstream.bsr.repository.AuthorRepository;
+import one.microstream.bsr.repository.BenchmarkRepositories;
+import one.microstream.bsr.repository.BookRepository;
+import one.microstream.bsr.repository.PublisherRepository;
+
+/**
+ * Embedded storage in a temporary directory with the repositories of the application on top of it, configured like
+ * <code>application.properties</code> except for two settings: optimistic reads are enabled, the benchmark is the
+ * only writer of the storage, and the search cache is disabled, the searches are measured and not the cache in front
+ * of them.
+ */
+final class BenchmarkStorage implements AutoCloseable
+{
+	private static final int SEED_BATCH_SIZE = 100_000;
+
+	private final Path directory;
+	private final EmbeddedStorageManager storage;
+
+	final AuthorRepository authors;
+	final PublisherRepository publishers;
+	final BookRepository books;
+
+	BenchmarkStorage() throws IOException
+	{
+		this.directory = BenchmarkData.tempDirectory();
+		final DataRoot root = new DataRoot();
+		this.storage = EmbeddedStorage.start(root, this.directory);
+		this.storage.storeRoot();
+
+		final LockedExecutor executor = LockedExecutor.New();
+		final ChunkResidencyManager residency = new ChunkResidencyManager(0, 0);
+		final ChunkSizeConfiguration chunkSizes = new ChunkSizeConfiguration(1000, 1000, 1000);
+		final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		final StoreMetrics storeMetrics = new StoreMetrics(registry, false);
+		final LockMetrics lockMetrics = new LockMetrics(registry);
+		final GroupCommitConfiguration groupCommit = new GroupCommitConfiguration(false, 128, Duration.ofMillis(2));
+		final OptimisticReadConfiguration optimisticReads = new OptimisticReadConfiguration(true);
+		final SearchCacheConfiguration searchCache = new SearchCacheConfiguration(false, 1L);
+
+		final BenchmarkRepositories repositories = new BenchmarkRepositories(
+			root,
+			this.storage,
+			executor,
+			residency,
+			chunkSizes,
+			storeMetrics,
+			lockMetrics,
+			groupCommit,
+			optimisticReads,
+			searchCache
+		);
+		this.authors = repositories.authors();
+		this.publishers = repositories.publishers();
+		this.books = repositories.books();
+	}
+
+	void seedAuthors(final long count)
+	{
+		for (long first = 1; first <= count; first += SEED_BATCH_SIZE)
+		{
+			final List<Author> batch = new ArrayList<>();
+			for (long id = first; id < Math.min(first + SEED_BATCH_SIZE, count + 1); id++)
+			{
+				batch.add(BenchmarkData.author(id));
+			}
+			this.authors.insertAll(batch);
+		}
+	}
+
+	void seedPublishers(final long count)
+	{
+		for (long first = 1; first <= count; first += SEED_BATCH_SIZE)
+		{
+			final List<Publisher> batch = new ArrayList<>();
+			for (long id = first; id < Math.min(first + SEED_BATCH_SIZE, count + 1); id++)
+			{
+				batch.add(BenchmarkData.publisher(id));
+			}
+			this.publishers.insertAll(batch);
+		}
+	}
+
+	/**
+	 * Seeds the books, every one referencing one of the already seeded authors and publishers.
+	 */
+	void seedBooks(final long count)
+	{
+		final long authorCount = this.authors.countAuthors();
+		final long publisherCount = this.publishers.countPublishers();
+		for (long first = 1; first <= count; first += SEED_BATCH_SIZE)
+		{
+			final List<Book> batch = new ArrayList<>();
+			for (long id = first; id < Math.min(first + SEED_BATCH_SIZE, count + 1); id++)
+			{
+				batch.add(
+					BenchmarkData.book(
+						id,
+						this.authors.getAuthorById(id % authorCount + 1),
+						this.publishers.getPublisherById(id % publisherCount + 1)
+					)
+				);
+			}
+			this.books.insertAll(batch);
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		this.storage.shutdown();
+		BenchmarkData.delete(this.directory);
+	}
+}
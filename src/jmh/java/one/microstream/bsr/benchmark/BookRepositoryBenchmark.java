@@ -0,0 +1,100 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.bsr.domain.Author;
+import one.microstream.bsr.domain.Book;
+import one.microstream.bsr.domain.Publisher;
+import one.microstream.bsr.repository.BookRepository;
+
+/**
+ * Lookups, searches and batch inserts of the {@link BookRepository}, depending on the number of stored books.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class BookRepositoryBenchmark
+{
+	@Param({"10000", "1000000", "10000000"})
+	public int size;
+
+	@Param({"1000"})
+	public int batchSize;
+
+	@Param({"river"})
+	public String title;
+
+	private BenchmarkStorage storage;
+	private Author author;
+	private Publisher publisher;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		this.storage = new BenchmarkStorage();
+		this.storage.seedAuthors(1000);
+		this.storage.seedPublishers(100);
+		this.storage.seedBooks(this.size);
+		this.author = this.storage.authors.getAuthorById(1L);
+		this.publisher = this.storage.publishers.getPublisherById(1L);
+		this.nextId = this.size + 1L;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		this.storage.close();
+	}
+
+	private long randomId()
+	{
+		return ThreadLocalRandom.current().nextLong(1L, this.size + 1L);
+	}
+
+	@Benchmark
+	public Book getBookByISBN()
+	{
+		return this.storage.books.getBookByISBN(BenchmarkData.isbn(this.randomId()));
+	}
+
+	@Benchmark
+	public Book getBookById()
+	{
+		return this.storage.books.getBookById(this.randomId());
+	}
+
+	@Benchmark
+	public List<Book> searchBooksByTitle()
+	{
+		return this.storage.books.searchBooksByTitle(this.title);
+	}
+
+	@Benchmark
+	public void insertAll()
+	{
+		final List<Book> batch = BenchmarkData.books(this.nextId, this.batchSize, this.author, this.publisher);
+		this.nextId += this.batchSize;
+		this.storage.books.insertAll(batch);
+	}
+}
@@ -0,0 +1,91 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.bsr.ChunkResidencyManager;
+import one.microstream.bsr.ChunkedList;
+import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.domain.Author;
+import one.microstream.bsr.domain.Publisher;
+
+/**
+ * Insert and scan throughput of a stored {@link ChunkedList} depending on its chunk size. Scans run with a residency
+ * budget of a single chunk, so every scan loads all chunks from the storage like on a node whose heap is smaller
+ * than the catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ChunkSizeBenchmark
+{
+	@Param({"100", "1000", "10000"})
+	public int chunkSize;
+
+	@Param({"100000"})
+	public int size;
+
+	private Path directory;
+	private EmbeddedStorageManager storage;
+	private DataRoot root;
+	private Author author;
+	private Publisher publisher;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		this.directory = BenchmarkData.tempDirectory();
+		this.root = new DataRoot();
+		this.root.setBooks(new ChunkedList<>(this.chunkSize));
+		this.author = BenchmarkData.author(1L);
+		this.publisher = BenchmarkData.publisher(1L);
+		this.storage = EmbeddedStorage.start(this.root, this.directory);
+		this.storage.storeRoot();
+		this.root.getAuthors().add(this.author, this.storage);
+		this.root.getPublishers().add(this.publisher, this.storage);
+
+		this.root.getBooks().addAll(BenchmarkData.books(1L, this.size, this.author, this.publisher), this.storage);
+		this.nextId = this.size + 1L;
+		this.root.getBooks().setResidencyManager(new ChunkResidencyManager(1, 0));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		this.storage.shutdown();
+		BenchmarkData.delete(this.directory);
+	}
+
+	@Benchmark
+	public void insert()
+	{
+		this.root.getBooks().add(BenchmarkData.book(this.nextId++, this.author, this.publisher), this.storage);
+	}
+
+	@Benchmark
+	public long scan()
+	{
+		return this.root.getBooks().stream().filter(b -> b.getTitle().contains("river")).count();
+	}
+}
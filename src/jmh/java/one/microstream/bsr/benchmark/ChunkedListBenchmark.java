@@ -0,0 +1,108 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.bsr.ChunkedList;
+import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.domain.Author;
+import one.microstream.bsr.domain.Book;
+import one.microstream.bsr.domain.Publisher;
+
+/**
+ * Operations of a stored {@link ChunkedList} with the default chunk size, depending on the number of elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ChunkedListBenchmark
+{
+	@Param({"10000", "1000000", "10000000"})
+	public int size;
+
+	@Param({"1000"})
+	public int batchSize;
+
+	private Path directory;
+	private EmbeddedStorageManager storage;
+	private ChunkedList<Book> books;
+	private Author author;
+	private Publisher publisher;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		this.directory = BenchmarkData.tempDirectory();
+		final DataRoot root = new DataRoot();
+		this.storage = EmbeddedStorage.start(root, this.directory);
+		this.storage.storeRoot();
+		this.author = BenchmarkData.author(1L);
+		this.publisher = BenchmarkData.publisher(1L);
+		root.getAuthors().add(this.author, this.storage);
+		root.getPublishers().add(this.publisher, this.storage);
+
+		this.books = root.getBooks();
+		for (long first = 1; first <= this.size; first += 100_000)
+		{
+			final int count = (int)Math.min(100_000, this.size - first + 1);
+			this.books.addAll(BenchmarkData.books(first, count, this.author, this.publisher), this.storage);
+		}
+		this.nextId = this.size + 1L;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		this.storage.shutdown();
+		BenchmarkData.delete(this.directory);
+	}
+
+	@Benchmark
+	public void add()
+	{
+		this.books.add(BenchmarkData.book(this.nextId++, this.author, this.publisher), this.storage);
+	}
+
+	@Benchmark
+	public void addAll()
+	{
+		final List<Book> batch = BenchmarkData.books(this.nextId, this.batchSize, this.author, this.publisher);
+		this.nextId += this.batchSize;
+		this.books.addAll(batch, this.storage);
+	}
+
+	@Benchmark
+	public Book get()
+	{
+		return this.books.get(ThreadLocalRandom.current().nextInt(this.size));
+	}
+
+	@Benchmark
+	public long stream()
+	{
+		return this.books.stream().filter(b -> b.getEdition() > 1).count();
+	}
+}
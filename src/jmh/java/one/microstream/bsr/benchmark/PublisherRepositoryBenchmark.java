@@ -0,0 +1,96 @@
+package one.microstream.bsr.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.bsr.domain.Publisher;
+import one.microstream.bsr.repository.PublisherRepository;
+
+/**
+ * Lookups, searches and batch inserts of the {@link PublisherRepository}, depending on the number of stored publishers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class PublisherRepositoryBenchmark
+{
+	@Param({"10000", "1000000", "10000000"})
+	public int size;
+
+	@Param({"1000"})
+	public int batchSize;
+
+	@Param({"river"})
+	public String company;
+
+	private BenchmarkStorage storage;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		this.storage = new BenchmarkStorage();
+		this.storage.seedPublishers(this.size);
+		this.nextId = this.size + 1L;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		this.storage.close();
+	}
+
+	private long randomId()
+	{
+		return ThreadLocalRandom.current().nextLong(1L, this.size + 1L);
+	}
+
+	@Benchmark
+	public Publisher getPublisherByEmail()
+	{
+		return this.storage.publishers.getPublisherByEmail(BenchmarkData.publisher(this.randomId()).getEmail());
+	}
+
+	@Benchmark
+	public Publisher getPublisherById()
+	{
+		return this.storage.publishers.getPublisherById(this.randomId());
+	}
+
+	@Benchmark
+	public List<Publisher> searchPublishersByCompany()
+	{
+		return this.storage.publishers.searchPublishersByCompany(this.company);
+	}
+
+	@Benchmark
+	public void insertAll()
+	{
+		final List<Publisher> batch = new ArrayList<>(this.batchSize);
+		for (int i = 0; i < this.batchSize; i++)
+		{
+			batch.add(BenchmarkData.publisher(this.nextId++));
+		}
+		this.storage.publishers.insertAll(batch);
+	}
+}
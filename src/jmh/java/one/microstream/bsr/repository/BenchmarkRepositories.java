@@ -0,0 +1,104 @@
+package one.microstream.bsr.repository;
+
+import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.eclipse.store.storage.types.StorageManager;
+
+import one.microstream.bsr.ChunkResidencyManager;
+import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.config.ChunkSizeConfiguration;
+import one.microstream.bsr.config.GroupCommitConfiguration;
+import one.microstream.bsr.config.OptimisticReadConfiguration;
+import one.microstream.bsr.config.SearchCacheConfiguration;
+import one.microstream.bsr.metrics.LockMetrics;
+import one.microstream.bsr.metrics.StoreMetrics;
+
+/**
+ * Creates the repositories on a plain, not clustered storage for the benchmarks, the constructors doing so are not
+ * part of the application.
+ */
+public final class BenchmarkRepositories
+{
+	private final DataRoot root;
+	private final StorageManager storageManager;
+	private final LockedExecutor executor;
+	private final ChunkResidencyManager residency;
+	private final ChunkSizeConfiguration chunkSizes;
+	private final StoreMetrics storeMetrics;
+	private final LockMetrics lockMetrics;
+	private final GroupCommitConfiguration groupCommit;
+	private final OptimisticReadConfiguration optimisticReads;
+	private final SearchCacheConfiguration searchCache;
+
+	public BenchmarkRepositories(
+		final DataRoot root,
+		final StorageManager storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
+	{
+		this.root = root;
+		this.storageManager = storageManager;
+		this.executor = executor;
+		this.residency = residency;
+		this.chunkSizes = chunkSizes;
+		this.storeMetrics = storeMetrics;
+		this.lockMetrics = lockMetrics;
+		this.groupCommit = groupCommit;
+		this.optimisticReads = optimisticReads;
+		this.searchCache = searchCache;
+	}
+
+	public AuthorRepository authors()
+	{
+		return new AuthorRepository(
+			this.root,
+			this.storageManager,
+			this.executor,
+			this.residency,
+			this.chunkSizes,
+			this.storeMetrics,
+			this.lockMetrics,
+			this.groupCommit,
+			this.optimisticReads,
+			this.searchCache
+		);
+	}
+
+	public PublisherRepository publishers()
+	{
+		return new PublisherRepository(
+			this.root,
+			this.storageManager,
+			this.executor,
+			this.residency,
+			this.chunkSizes,
+			this.storeMetrics,
+			this.lockMetrics,
+			this.groupCommit,
+			this.optimisticReads,
+			this.searchCache
+		);
+	}
+
+	public BookRepository books()
+	{
+		return new BookRepository(
+			this.root,
+			this.storageManager,
+			this.executor,
+			this.residency,
+			this.chunkSizes,
+			this.storeMetrics,
+			this.lockMetrics,
+			this.groupCommit,
+			this.optimisticReads,
+			this.searchCache
+		);
+	}
+}
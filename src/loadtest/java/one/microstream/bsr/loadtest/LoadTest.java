@@ -0,0 +1,315 @@
+package one.microstream.bsr.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.uri.UriBuilder;
+import io.micronaut.runtime.server.EmbeddedServer;
+
+/**
+ * Starts the server on a fresh local storage, seeds it over HTTP and sends a mix of <code>GET /book/{isbn}</code>,
+ * <code>GET /book/search</code> and <code>PUT /book/batch</code> at a fixed rate from virtual threads. The latency of a
+ * request is measured from the time it was scheduled to be sent, so a stalled server also counts against the requests
+ * that had to wait for it. Only requests scheduled after the warmup are measured. Prints the latency percentiles and
+ * the throughput of the successful requests of every operation and counts the failed ones, separately those shed with
+ * <code>503 Service Unavailable</code>, see {@link LoadTestConfiguration} for the arguments.
+ */
+public class LoadTest
+{
+	private static final int SEED_BATCH_SIZE = 1000;
+
+	private final LoadTestConfiguration configuration;
+	private final BlockingHttpClient client;
+	private final AtomicLong nextBookId;
+	private final List<Operation> operations = new ArrayList<>();
+
+	public static void main(final String[] args) throws Exception
+	{
+		final LoadTestConfiguration configuration = LoadTestConfiguration.parse(args);
+		final Path storageDirectory = Files.createTempDirectory("bsr-loadtest");
+		try (
+			final EmbeddedServer server = ApplicationContext.run(
+				EmbeddedServer.class,
+				Map.of(
+					"eclipsestore.storage.main.storage-directory", storageDirectory.toString(),
+					"bsr.search-cache.enabled", configuration.searchCache()
+				)
+			);
+			final HttpClient client = server.getApplicationContext().createBean(HttpClient.class, server.getURL())
+		)
+		{
+			new LoadTest(configuration, client.toBlocking()).run();
+		}
+		finally
+		{
+			delete(storageDirectory);
+		}
+	}
+
+	LoadTest(final LoadTestConfiguration configuration, final BlockingHttpClient client)
+	{
+		this.configuration = configuration;
+		this.client = client;
+		this.nextBookId = new AtomicLong(configuration.books() + 1L);
+
+		this.operations.add(new Operation("GET /book/{isbn}", configuration.lookupWeight(), this::lookup));
+		this.operations.add(new Operation("GET /book/search", configuration.searchWeight(), this::search));
+		this.operations.add(new Operation("PUT /book/batch", configuration.writeWeight(), this::write));
+	}
+
+	void run()
+	{
+		final var configuration = this.configuration;
+		System.out.printf(
+			"Seeding %d authors, %d publishers and %d books%n",
+			configuration.authors(),
+			configuration.publishers(),
+			configuration.books()
+		);
+		this.seed("/author/batch", configuration.authors(), LoadTestData::author);
+		this.seed("/publisher/batch", configuration.publishers(), LoadTestData::publisher);
+		this.seed(
+			"/book/batch",
+			configuration.books(),
+			id -> LoadTestData.book(id, configuration.authors(), configuration.publishers())
+		);
+
+		System.out.printf(
+			"Running %d workers at %d req/s, search cache %s, mix %d:%d:%d, warmup %s, measuring %s%n",
+			configuration.workers(),
+			configuration.rate(),
+			configuration.searchCache() ? "on" : "off",
+			configuration.lookupWeight(),
+			configuration.searchWeight(),
+			configuration.writeWeight(),
+			configuration.warmup(),
+			configuration.duration()
+		);
+		final long start = System.nanoTime();
+		final long measureFrom = start + configuration.warmup().toNanos();
+		final long end = measureFrom + configuration.duration().toNanos();
+		final long interval = TimeUnit.SECONDS.toNanos(configuration.workers()) / configuration.rate();
+
+		try (final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor())
+		{
+			for (int i = 0; i < configuration.workers(); i++)
+			{
+				// spreads the schedules of the workers evenly over one interval
+				final long first = start + interval * i / configuration.workers();
+				workers.submit(() -> this.work(first, interval, measureFrom, end));
+			}
+		}
+
+		this.report(end - measureFrom);
+	}
+
+	private void seed(final String uri, final int count, final LongFunction<Object> dto)
+	{
+		for (int from = 1; from <= count; from += SEED_BATCH_SIZE)
+		{
+			final List<Object> batch = LongStream.range(from, Math.min(from + SEED_BATCH_SIZE, count + 1L))
+				.mapToObj(dto)
+				.toList();
+			this.client.exchange(HttpRequest.PUT(uri, batch));
+		}
+	}
+
+	/**
+	 * Sends one request every <code>interval</code> nanoseconds, starting at <code>first</code>. A worker that fell
+	 * behind sends the requests it owes right away, each measured from its scheduled time.
+	 */
+	private void work(final long first, final long interval, final long measureFrom, final long end)
+	{
+		final int totalWeight = this.configuration.totalWeight();
+		for (long scheduled = first; scheduled < end; scheduled += interval)
+		{
+			final long wait = scheduled - System.nanoTime();
+			if (wait > 0L)
+			{
+				try
+				{
+					TimeUnit.NANOSECONDS.sleep(wait);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+			for (final Operation operation : this.operations)
+			{
+				pick -= operation.weight;
+				if (pick < 0)
+				{
+					operation.execute(scheduled, scheduled >= measureFrom);
+					break;
+				}
+			}
+		}
+	}
+
+	private void lookup()
+	{
+		final long id = ThreadLocalRandom.current().nextLong(1L, this.configuration.books() + 1L);
+		this.client.exchange(HttpRequest.GET("/book/" + LoadTestData.isbn(id)), String.class);
+	}
+
+	private void search()
+	{
+		// two adjacent title words, matching one in 400 books
+		final String[] words = LoadTestData.WORDS;
+		final var random = ThreadLocalRandom.current();
+		final String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+		final var uri = UriBuilder.of("/book/search")
+			.queryParam("title", title)
+			.queryParam("page", 0)
+			.queryParam("pageSize", 20)
+			.build();
+		this.client.exchange(HttpRequest.GET(uri), String.class);
+	}
+
+	private void write()
+	{
+		final var configuration = this.configuration;
+		final long from = this.nextBookId.getAndAdd(configuration.batchSize());
+		final var batch = LongStream.range(from, from + configuration.batchSize())
+			.mapToObj(id -> LoadTestData.book(id, configuration.authors(), configuration.publishers()))
+			.toList();
+		this.client.exchange(HttpRequest.PUT("/book/batch", batch));
+	}
+
+	private void report(final long elapsedNanos)
+	{
+		final double seconds = elapsedNanos / 1e9;
+		final PrintStream out = System.out;
+		out.printf(
+			"%-20s %10s %8s %8s %10s %10s %10s %10s %10s %10s%n",
+			"operation", "requests", "errors", "shed", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"
+		);
+		for (final Operation operation : this.operations)
+		{
+			final Histogram histogram = operation.recorder.getIntervalHistogram();
+			out.printf(
+				"%-20s %10d %8d %8d %10.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+				operation.name,
+				histogram.getTotalCount(),
+				operation.errors.get(),
+				operation.shed.get(),
+				histogram.getTotalCount() / seconds,
+				millis(histogram.getValueAtPercentile(50.0)),
+				millis(histogram.getValueAtPercentile(90.0)),
+				millis(histogram.getValueAtPercentile(99.0)),
+				millis(histogram.getValueAtPercentile(99.9)),
+				millis(histogram.getMaxValue())
+			);
+			this.writeDistribution(operation.name, histogram);
+		}
+	}
+
+	private void writeDistribution(final String name, final Histogram histogram)
+	{
+		if (this.configuration.output() == null)
+		{
+			return;
+		}
+		final Path file = this.configuration.output().resolve(
+			name.replaceAll("[^A-Za-z]+", "-").replaceAll("^-|-$", "").toLowerCase() + ".hgrm"
+		);
+		try
+		{
+			Files.createDirectories(file.getParent());
+			try (final PrintStream out = new PrintStream(Files.newOutputStream(file)))
+			{
+				// values are recorded in nanoseconds, the distribution is written in milliseconds
+				histogram.outputPercentileDistribution(out, 1e6);
+			}
+		}
+		catch (final IOException e)
+		{
+			throw new IllegalStateException("Could not write " + file, e);
+		}
+	}
+
+	private static double millis(final long nanos)
+	{
+		return nanos / 1e6;
+	}
+
+	private static void delete(final Path directory) throws IOException
+	{
+		try (final var files = Files.walk(directory))
+		{
+			for (final var file : files.toList().reversed())
+			{
+				Files.delete(file);
+			}
+		}
+	}
+
+	private static final class Operation
+	{
+		private final String name;
+		private final int weight;
+		private final Runnable request;
+		private final Recorder recorder = new Recorder(3);
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong shed = new AtomicLong();
+
+		Operation(final String name, final int weight, final Runnable request)
+		{
+			this.name = name;
+			this.weight = weight;
+			this.request = request;
+		}
+
+		/**
+		 * @param measured whether the request was scheduled after the warmup
+		 */
+		void execute(final long scheduled, final boolean measured)
+		{
+			try
+			{
+				this.request.run();
+				if (measured)
+				{
+					this.recorder.recordValue(System.nanoTime() - scheduled);
+				}
+			}
+			catch (final RuntimeException e)
+			{
+				// timeouts and closed connections fail a request as well, the worker has to keep its schedule
+				if (measured)
+				{
+					this.errors.incrementAndGet();
+					if (e instanceof final HttpClientResponseException response
+						&& response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE)
+					{
+						this.shed.incrementAndGet();
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package one.microstream.bsr.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, parsed from <code>key=value</code> arguments, e.g.
+ * <code>books=1000000 workers=128 rate=5000 mix=80:15:5 duration=2m</code>.
+ *
+ * @param rate requests per second sent by all workers together, on a fixed schedule independent of the responses
+ * @param mix weights of the isbn lookups, title searches and batch writes, separated by colons
+ * @param output directory the full latency distributions are written to as <code>.hgrm</code> files, optional
+ * @param searchCache whether the server caches search result pages, off by default so that the searches are measured
+ */
+public record LoadTestConfiguration(
+	int authors,
+	int publishers,
+	int books,
+	int workers,
+	int rate,
+	Duration warmup,
+	Duration duration,
+	int lookupWeight,
+	int searchWeight,
+	int writeWeight,
+	int batchSize,
+	Path output,
+	boolean searchCache
+)
+{
+	public static LoadTestConfiguration parse(final String... args)
+	{
+		final Map<String, String> values = new HashMap<>();
+		for (final String arg : args)
+		{
+			final int separator = arg.indexOf('=');
+			if (separator < 1)
+			{
+				throw new IllegalArgumentException("Expected key=value but got " + arg);
+			}
+			values.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+
+		final String[] mix = values.getOrDefault("mix", "80:15:5").split(":");
+		if (mix.length != 3)
+		{
+			throw new IllegalArgumentException("Expected mix=lookup:search:write but got " + String.join(":", mix));
+		}
+
+		final String output = values.get("output");
+		return new LoadTestConfiguration(
+			Integer.parseInt(values.getOrDefault("authors", "1000")),
+			Integer.parseInt(values.getOrDefault("publishers", "100")),
+			Integer.parseInt(values.getOrDefault("books", "100000")),
+			Integer.parseInt(values.getOrDefault("workers", "64")),
+			Integer.parseInt(values.getOrDefault("rate", "2000")),
+			duration(values.getOrDefault("warmup", "10s")),
+			duration(values.getOrDefault("duration", "60s")),
+			Integer.parseInt(mix[0]),
+			Integer.parseInt(mix[1]),
+			Integer.parseInt(mix[2]),
+			Integer.parseInt(values.getOrDefault("batch-size", "100")),
+			output == null ? null : Path.of(output),
+			Boolean.parseBoolean(values.getOrDefault("search-cache", "false"))
+		);
+	}
+
+	private static Duration duration(final String value)
+	{
+		return Duration.parse("PT" + value.toUpperCase());
+	}
+
+	public int totalWeight()
+	{
+		return this.lookupWeight + this.searchWeight + this.writeWeight;
+	}
+}
@@ -0,0 +1,73 @@
+package one.microstream.bsr.loadtest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import one.microstream.bsr.dto.AddressDto;
+import one.microstream.bsr.dto.AuthorDto;
+import one.microstream.bsr.dto.BookReferenceDto;
+import one.microstream.bsr.dto.PublisherDto;
+
+final class LoadTestData
+{
+	static final String[] WORDS = {
+		"night", "river", "garden", "empire", "shadow", "winter", "silent", "stone", "paper", "ocean", "iron",
+		"golden", "last", "hidden", "crown", "forest", "glass", "storm", "letter", "journey"
+	};
+
+	private LoadTestData()
+	{
+	}
+
+	private static List<AddressDto> addresses(final long id)
+	{
+		return List.of(new AddressDto("Street " + id, null, "12345", "City", "Country"));
+	}
+
+	static AuthorDto author(final long id)
+	{
+		return new AuthorDto(null, "author" + id + "@example.com", "First" + id, "Last" + id, addresses(id));
+	}
+
+	static PublisherDto publisher(final long id)
+	{
+		return new PublisherDto(
+			null,
+			"publisher" + id + "@example.com",
+			"Company " + WORDS[(int)(id % WORDS.length)] + " " + id,
+			addresses(id)
+		);
+	}
+
+	static String isbn(final long id)
+	{
+		return "978-%010d".formatted(id);
+	}
+
+	static String title(final long id)
+	{
+		return "The %s %s of %s".formatted(
+			WORDS[(int)(id % WORDS.length)],
+			WORDS[(int)(id / WORDS.length % WORDS.length)],
+			WORDS[(int)(id / (WORDS.length * WORDS.length) % WORDS.length)]
+		) + " " + id;
+	}
+
+	/**
+	 * Book number <code>id</code>, referencing the seeded authors and publishers round robin.
+	 */
+	static BookReferenceDto book(final long id, final int authors, final int publishers)
+	{
+		return new BookReferenceDto(
+			0L,
+			isbn(id),
+			title(id),
+			LocalDate.of(2000, 1, 1),
+			1,
+			10,
+			1999,
+			id % authors + 1,
+			id % publishers + 1
+		);
+	}
+}
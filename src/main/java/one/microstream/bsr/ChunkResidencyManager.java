@@ -0,0 +1,120 @@
+package one.microstream.bsr;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.serializer.reference.Lazy;
+
+/**
+ * Keeps track of the loaded chunks of all {@link ChunkedList}s it is attached to and unloads the least recently used
+ * ones via {@link Lazy#clear()} once a budget is exceeded. Only stored, unmodified chunks may be handed in, the lists
+ * never register their tail chunk. Without any budget, chunks are only counted as they are loaded and never tracked.
+ */
+public class ChunkResidencyManager
+{
+	private final int maxResidentChunks;
+	private final double maxHeapUsage;
+	private final boolean bounded;
+
+	// access ordered, the eldest entry is the least recently used chunk
+	private final Map<Lazy<?>, Boolean> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maxResidentChunks the maximum number of loaded chunks, <code>0</code> for no limit
+	 * @param maxHeapUsage the fraction of the max heap above which chunks are unloaded, <code>0</code> to disable
+	 */
+	public ChunkResidencyManager(final int maxResidentChunks, final double maxHeapUsage)
+	{
+		this.maxResidentChunks = maxResidentChunks;
+		this.maxHeapUsage = maxHeapUsage;
+		this.bounded = maxResidentChunks > 0 || maxHeapUsage > 0;
+	}
+
+	public <T> T touch(final Lazy<T> chunk)
+	{
+		final boolean wasLoaded = chunk.isLoaded();
+		final long start = wasLoaded ? 0L : System.nanoTime();
+		final T value = chunk.get();
+		if (!wasLoaded)
+		{
+			this.loads.increment();
+			this.loadNanos.add(System.nanoTime() - start);
+		}
+		if (!this.bounded)
+		{
+			// nothing is ever unloaded, so there is no access order to keep
+			return value;
+		}
+
+		synchronized (this.resident)
+		{
+			this.resident.put(chunk, Boolean.TRUE);
+
+			while (this.maxResidentChunks > 0 && this.resident.size() > this.maxResidentChunks)
+			{
+				this.evictEldest();
+			}
+			// the heap usage only drops after the next gc, so a single chunk is released per touch
+			if (this.maxHeapUsage > 0 && this.resident.size() > 1 && this.heapUsage() > this.maxHeapUsage)
+			{
+				this.evictEldest();
+			}
+		}
+		return value;
+	}
+
+	private void evictEldest()
+	{
+		final Iterator<Lazy<?>> iterator = this.resident.keySet().iterator();
+		final Lazy<?> eldest = iterator.next();
+		iterator.remove();
+		if (eldest.isStored())
+		{
+			eldest.clear();
+			this.evictions.increment();
+		}
+	}
+
+	private double heapUsage()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		return (double)(runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+	}
+
+	public void forget(final Lazy<?> chunk)
+	{
+		synchronized (this.resident)
+		{
+			this.resident.remove(chunk);
+		}
+	}
+
+	public long getLoads()
+	{
+		return this.loads.sum();
+	}
+
+	public long getLoadNanos()
+	{
+		return this.loadNanos.sum();
+	}
+
+	public long getEvictions()
+	{
+		return this.evictions.sum();
+	}
+
+	public int getResidentChunks()
+	{
+		synchronized (this.resident)
+		{
+			return this.resident.size();
+		}
+	}
+}
@@ -3,108 +3,518 @@ package one.microstream.bsr;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.eclipse.serializer.persistence.types.PersistenceStoring;
 import org.eclipse.serializer.reference.Lazy;
 
+/**
+ * Append-only list split into lazily loaded chunks. A single writer at a time may modify it while any number of
+ * readers access it: the chunk directory is published as an immutable {@link Snapshot}, full chunks are never modified
+ * again and are read without locking, only the tail chunk is guarded by its own lock.
+ * <p>
+ * Unless the list is marked as {@link #setSingleWriter(boolean) single writer}, its chunks may also be changed
+ * underneath it, e.g. by replication. Every read then checks the snapshot against the chunk directory and takes a new
+ * one if it is outdated, such reads must not overlap those changes.
+ */
 public class ChunkedList<T>
 {
 	private final List<Lazy<List<T>>> data = new ArrayList<>();
 	private final int chunkSize;
+	private transient ChunkResidencyManager residency;
+	private transient volatile boolean singleWriter;
+	// transient state is not initialized for loaded instances, both are created on first use
+	private transient volatile Snapshot snapshot;
+	private transient volatile ReadWriteLock tailLock;
 
 	public ChunkedList(final int chunkSize)
 	{
 		this.chunkSize = chunkSize;
 	}
 
-	private Lazy<List<T>> appendDataList()
+	public int getChunkSize()
 	{
-		final Lazy<List<T>> newList = Lazy.Reference(new ArrayList<T>(this.chunkSize));
-		this.data.add(newList);
-		return newList;
+		return this.chunkSize;
 	}
 
-	public void add(final T item, final PersistenceStoring storing)
+	public void setResidencyManager(final ChunkResidencyManager residency)
+	{
+		synchronized (this.data)
+		{
+			if (this.residency != null)
+			{
+				this.data.forEach(this.residency::forget);
+			}
+			this.residency = residency;
+		}
+	}
+
+	/**
+	 * @param singleWriter whether all modifications go through this instance, only then the published snapshot is
+	 *        trusted without checking it against the chunk directory
+	 */
+	public void setSingleWriter(final boolean singleWriter)
 	{
-		boolean addedDataList = false;
+		this.singleWriter = singleWriter;
+	}
 
-		if (this.data.isEmpty())
+	/**
+	 * Returns the current state of the list, unaffected by later modifications.
+	 */
+	public Snapshot snapshot()
+	{
+		final Snapshot current = this.snapshot;
+		if (current != null && (this.singleWriter || current.isCurrent()))
 		{
-			this.appendDataList();
-			addedDataList = true;
+			return current;
 		}
+		synchronized (this.data)
+		{
+			if (this.snapshot == null || !this.singleWriter && !this.snapshot.isCurrent())
+			{
+				final Lazy<List<T>>[] chunks = this.directory();
+				final long size = chunks.length == 0
+					? 0L
+					: (chunks.length - 1L) * this.chunkSize + chunks[chunks.length - 1].get().size();
+				this.snapshot = new Snapshot(chunks, size);
+			}
+			return this.snapshot;
+		}
+	}
 
-		var lastList = this.data.getLast();
-		if (lastList.get().size() >= this.chunkSize)
+	private ReadWriteLock tailLock()
+	{
+		final ReadWriteLock current = this.tailLock;
+		if (current != null)
 		{
-			lastList = this.appendDataList();
-			addedDataList = true;
+			return current;
 		}
+		synchronized (this.data)
+		{
+			if (this.tailLock == null)
+			{
+				this.tailLock = new ReentrantReadWriteLock();
+			}
+			return this.tailLock;
+		}
+	}
 
-		lastList.get().add(item);
+	@SuppressWarnings("unchecked")
+	private Lazy<List<T>>[] directory()
+	{
+		return this.data.toArray(new Lazy[this.data.size()]);
+	}
 
-		if (addedDataList)
+	private Lazy<List<T>> appendDataList()
+	{
+		final Lazy<List<T>> newList = Lazy.Reference(new ArrayList<T>(this.chunkSize));
+		this.data.add(newList);
+		return newList;
+	}
+
+	/**
+	 * Hands the full tail chunk to the residency manager before a new chunk is appended, it is never modified again.
+	 */
+	private void seal()
+	{
+		if (this.residency != null && !this.data.isEmpty())
 		{
-			storing.store(this.data);
+			this.residency.touch(this.data.getLast());
 		}
-		else
+	}
+
+	public void add(final T item, final PersistenceStoring storing)
+	{
+		// the monitor of the chunk directory serializes the writers
+		synchronized (this.data)
 		{
-			storing.store(lastList.get());
+			final Snapshot current = this.snapshot();
+			Lazy<List<T>>[] chunks = current.chunks;
+			boolean addedDataList = false;
+
+			if (this.data.isEmpty() || this.data.getLast().get().size() >= this.chunkSize)
+			{
+				this.seal();
+				this.appendDataList();
+				chunks = this.directory();
+				addedDataList = true;
+			}
+
+			final List<T> lastList = this.data.getLast().get();
+			final Lock lock = this.tailLock().writeLock();
+			lock.lock();
+			try
+			{
+				lastList.add(item);
+			}
+			finally
+			{
+				lock.unlock();
+			}
+			this.snapshot = new Snapshot(chunks, current.size + 1L);
+
+			if (addedDataList)
+			{
+				storing.store(this.data);
+			}
+			else
+			{
+				storing.store(lastList);
+			}
 		}
 	}
 
 	public void addAll(final Collection<T> items, final PersistenceStoring storing)
 	{
-		if (this.data.isEmpty())
+		synchronized (this.data)
 		{
-			this.appendDataList();
-			storing.store(this.data);
-		}
+			final Snapshot current = this.snapshot();
+			Lazy<List<T>>[] chunks = current.chunks;
+			long size = current.size;
+			boolean addedDataList = false;
 
-		for (final var item : items)
-		{
-			var lastList = this.data.getLast();
-			// when a chunk is full, store it as well as the next reference
-			if (lastList.get().size() >= this.chunkSize)
+			if (this.data.isEmpty())
+			{
+				this.appendDataList();
+				chunks = this.directory();
+				addedDataList = true;
+			}
+
+			List<T> lastList = this.data.getLast().get();
+			final Lock lock = this.tailLock().writeLock();
+			lock.lock();
+			try
 			{
-				final var newList = this.appendDataList();
-				storing.storeAll(lastList.get(), newList);
-				lastList = newList;
+				for (final var item : items)
+				{
+					// when a chunk is full, store it and continue in a new one
+					if (lastList.size() >= this.chunkSize)
+					{
+						storing.store(lastList);
+						this.seal();
+						lastList = this.appendDataList().get();
+						chunks = this.directory();
+						addedDataList = true;
+
+						// the full chunk is sealed now, readers of the tail are only held up for one chunk at a time
+						this.snapshot = new Snapshot(chunks, size);
+						lock.unlock();
+						lock.lock();
+					}
+
+					lastList.add(item);
+					size++;
+				}
+				this.snapshot = new Snapshot(chunks, size);
+			}
+			finally
+			{
+				lock.unlock();
 			}
 
-			lastList.get().add(item);
+			// the chunk references have to be stored as well, otherwise the new chunks are lost on restart
+			if (addedDataList)
+			{
+				storing.store(this.data);
+			}
+			storing.store(lastList);
 		}
+	}
 
-		storing.store(this.data.getLast().get());
+	/**
+	 * Appends the elements of <code>source</code> from <code>fromIndex</code> up to <code>toIndex</code>, exclusive,
+	 * one source chunk at a time.
+	 */
+	public void addAll(
+		final ChunkedList<T> source,
+		final long fromIndex,
+		final long toIndex,
+		final PersistenceStoring storing
+	)
+	{
+		final ChunkedList<T>.Snapshot sourceSnapshot = source.snapshot();
+		final long end = Math.min(toIndex, sourceSnapshot.size);
+		for (long index = fromIndex; index < end;)
+		{
+			final List<T> sourceChunk = sourceSnapshot.chunk((int)(index / source.chunkSize));
+			final int offset = (int)(index % source.chunkSize);
+			final int length = (int)Math.min(sourceChunk.size() - offset, end - index);
+			this.addAll(sourceChunk.subList(offset, offset + length), storing);
+			index += length;
+		}
 	}
 
 	public T get(final int index)
 	{
-		return this.data.get(index / this.chunkSize).get().get(index % this.chunkSize);
+		return this.snapshot().get(index);
 	}
 
-	public long size() throws ArithmeticException
+	public long size()
 	{
-		if (this.data.isEmpty())
-		{
-			return 0L;
-		}
-		else
-		{
-			final long completedListsTotal = (this.data.size() - 1L) * this.chunkSize;
-			return completedListsTotal + this.data.getLast().get().size();
-		}
+		return this.snapshot().size;
 	}
 
 	public void clear(final PersistenceStoring storing)
 	{
-		this.data.clear();
-		storing.store(this.data);
+		synchronized (this.data)
+		{
+			if (this.residency != null)
+			{
+				this.data.forEach(this.residency::forget);
+			}
+			this.data.clear();
+			this.snapshot = new Snapshot(this.directory(), 0L);
+			storing.store(this.data);
+		}
 	}
 
 	public Stream<T> stream()
 	{
-		return this.data.stream().flatMap(l -> l.get().stream());
+		return this.snapshot().stream(0L);
+	}
+
+	public Stream<T> stream(final long fromIndex)
+	{
+		return this.snapshot().stream(fromIndex);
+	}
+
+	public Stream<T> parallelStream()
+	{
+		return this.snapshot().parallelStream(0L);
+	}
+
+	public Stream<T> parallelStream(final long fromIndex)
+	{
+		return this.snapshot().parallelStream(fromIndex);
+	}
+
+	public final class Snapshot
+	{
+		private final Lazy<List<T>>[] chunks;
+		private final long size;
+
+		Snapshot(final Lazy<List<T>>[] chunks, final long size)
+		{
+			this.chunks = chunks;
+			this.size = size;
+		}
+
+		public long size()
+		{
+			return this.size;
+		}
+
+		/**
+		 * Whether the chunk directory and the length of the tail chunk still match this snapshot.
+		 */
+		private boolean isCurrent()
+		{
+			final List<Lazy<List<T>>> data = ChunkedList.this.data;
+			if (data.size() != this.chunks.length)
+			{
+				return false;
+			}
+			if (this.chunks.length == 0)
+			{
+				return true;
+			}
+			final Lazy<List<T>> tail = data.getLast();
+			return tail == this.chunks[this.chunks.length - 1] && tail.get().size() == this.tailLength();
+		}
+
+		private boolean isTail(final int chunkIndex)
+		{
+			return chunkIndex == this.chunks.length - 1;
+		}
+
+		private int tailLength()
+		{
+			return (int)(this.size - (this.chunks.length - 1L) * ChunkedList.this.chunkSize);
+		}
+
+		/**
+		 * Returns the elements of the chunk covered by this snapshot. The tail chunk is still appended to, so its part
+		 * is copied under the tail lock, and it is never handed to the residency manager.
+		 */
+		private List<T> chunk(final int chunkIndex)
+		{
+			final var chunk = this.chunks[chunkIndex];
+			if (!this.isTail(chunkIndex))
+			{
+				final ChunkResidencyManager residency = ChunkedList.this.residency;
+				return residency == null ? chunk.get() : residency.touch(chunk);
+			}
+
+			final Lock lock = ChunkedList.this.tailLock().readLock();
+			lock.lock();
+			try
+			{
+				return new ArrayList<>(chunk.get().subList(0, this.tailLength()));
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+
+		public T get(final int index)
+		{
+			if (index < 0 || index >= this.size)
+			{
+				throw new IndexOutOfBoundsException(index);
+			}
+			final int chunkIndex = index / ChunkedList.this.chunkSize;
+			if (!this.isTail(chunkIndex))
+			{
+				return this.chunk(chunkIndex).get(index % ChunkedList.this.chunkSize);
+			}
+
+			final Lock lock = ChunkedList.this.tailLock().readLock();
+			lock.lock();
+			try
+			{
+				return this.chunks[chunkIndex].get().get(index % ChunkedList.this.chunkSize);
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+
+		public Stream<T> stream(final long fromIndex)
+		{
+			final long firstChunk = fromIndex / ChunkedList.this.chunkSize;
+			if (fromIndex >= this.size)
+			{
+				return Stream.empty();
+			}
+
+			// only the chunks from fromIndex on are loaded
+			final List<T> first = this.chunk((int)firstChunk);
+			final int offset = (int)(fromIndex % ChunkedList.this.chunkSize);
+			return Stream.concat(
+				first.subList(offset, first.size()).stream(),
+				IntStream.range((int)firstChunk + 1, this.chunks.length).mapToObj(this::chunk).flatMap(List::stream)
+			);
+		}
+
+		/**
+		 * Parallel variant of {@link #stream(long)}. Every split owns whole chunks and loads them independently, so a
+		 * scan over a large list is spread over all cores of the common pool.
+		 */
+		public Stream<T> parallelStream(final long fromIndex)
+		{
+			if (fromIndex >= this.size)
+			{
+				return Stream.empty();
+			}
+			return StreamSupport.stream(
+				new ChunkSpliterator(
+					(int)(fromIndex / ChunkedList.this.chunkSize),
+					(int)(fromIndex % ChunkedList.this.chunkSize),
+					this.chunks.length
+				),
+				true
+			);
+		}
+
+		private class ChunkSpliterator implements Spliterator<T>
+		{
+			private int chunk;
+			private int offset;
+			private final int endChunk;
+			private List<T> current;
+
+			ChunkSpliterator(final int chunk, final int offset, final int endChunk)
+			{
+				this.chunk = chunk;
+				this.offset = offset;
+				this.endChunk = endChunk;
+			}
+
+			private List<T> currentChunk()
+			{
+				if (this.current == null)
+				{
+					this.current = Snapshot.this.chunk(this.chunk);
+				}
+				return this.current;
+			}
+
+			private void nextChunk()
+			{
+				this.chunk++;
+				this.offset = 0;
+				this.current = null;
+			}
+
+			@Override
+			public boolean tryAdvance(final Consumer<? super T> action)
+			{
+				while (this.chunk < this.endChunk)
+				{
+					final List<T> list = this.currentChunk();
+					if (this.offset < list.size())
+					{
+						action.accept(list.get(this.offset++));
+						return true;
+					}
+					this.nextChunk();
+				}
+				return false;
+			}
+
+			@Override
+			public void forEachRemaining(final Consumer<? super T> action)
+			{
+				while (this.chunk < this.endChunk)
+				{
+					final List<T> list = this.currentChunk();
+					for (int i = this.offset; i < list.size(); i++)
+					{
+						action.accept(list.get(i));
+					}
+					this.nextChunk();
+				}
+			}
+
+			@Override
+			public Spliterator<T> trySplit()
+			{
+				final int remaining = this.endChunk - this.chunk;
+				if (remaining < 2)
+				{
+					return null;
+				}
+				final int mid = this.chunk + remaining / 2;
+				final var prefix = new ChunkSpliterator(this.chunk, this.offset, mid);
+				this.chunk = mid;
+				this.offset = 0;
+				this.current = null;
+				return prefix;
+			}
+
+			@Override
+			public long estimateSize()
+			{
+				return Math.max(
+					0L,
+					(long)(this.endChunk - this.chunk) * ChunkedList.this.chunkSize - this.offset
+				);
+			}
+
+			@Override
+			public int characteristics()
+			{
+				return Spliterator.ORDERED | Spliterator.NONNULL;
+			}
+		}
 	}
 }
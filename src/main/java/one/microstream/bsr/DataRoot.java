@@ -1,7 +1,6 @@
 
 package one.microstream.bsr;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import one.microstream.bsr.domain.Author;
@@ -10,9 +9,20 @@ import one.microstream.bsr.domain.Publisher;
 
 public class DataRoot
 {
-	private final ChunkedList<Book> books = new ChunkedList<>(1000);
-	private final List<Author> authors = new ArrayList<>();
-	private final List<Publisher> publishers = new ArrayList<>();
+	private ChunkedList<Book> books = new ChunkedList<>(1000);
+	// target of a running re-chunking, reachable from the root so its chunks survive the storage gc until the swap
+	private ChunkedList<Book> rechunkedBooks;
+	private ChunkedList<Author> chunkedAuthors = new ChunkedList<>(1000);
+	private ChunkedList<Publisher> chunkedPublishers = new ChunkedList<>(1000);
+	// plain lists of storages created before authors and publishers were chunked, only read once to migrate them
+	private List<Author> authors;
+	private List<Publisher> publishers;
+	private UniqueIndex<String> isbnIndex = new UniqueIndex<>();
+	private UniqueIndex<String> authorEmailIndex = new UniqueIndex<>();
+	private UniqueIndex<String> publisherEmailIndex = new UniqueIndex<>();
+	private NGramIndex bookTitleIndex = new NGramIndex();
+	private NGramIndex authorNameIndex = new NGramIndex();
+	private NGramIndex publisherCompanyIndex = new NGramIndex();
 
 	public DataRoot()
 	{
@@ -23,13 +33,118 @@ public class DataRoot
 		return this.books;
 	}
 
-	public List<Author> getAuthors()
+	public void setBooks(final ChunkedList<Book> books)
+	{
+		this.books = books;
+	}
+
+	public ChunkedList<Book> getRechunkedBooks()
+	{
+		return this.rechunkedBooks;
+	}
+
+	public void setRechunkedBooks(final ChunkedList<Book> rechunkedBooks)
+	{
+		this.rechunkedBooks = rechunkedBooks;
+	}
+
+	public ChunkedList<Author> getAuthors()
+	{
+		return this.chunkedAuthors;
+	}
+
+	public void setAuthors(final ChunkedList<Author> authors)
+	{
+		this.chunkedAuthors = authors;
+	}
+
+	public ChunkedList<Publisher> getPublishers()
+	{
+		return this.chunkedPublishers;
+	}
+
+	public void setPublishers(final ChunkedList<Publisher> publishers)
+	{
+		this.chunkedPublishers = publishers;
+	}
+
+	public List<Author> getLegacyAuthors()
 	{
 		return this.authors;
 	}
 
-	public List<Publisher> getPublishers()
+	public void clearLegacyAuthors()
+	{
+		this.authors = null;
+	}
+
+	public List<Publisher> getLegacyPublishers()
 	{
 		return this.publishers;
 	}
+
+	public void clearLegacyPublishers()
+	{
+		this.publishers = null;
+	}
+
+	public UniqueIndex<String> getIsbnIndex()
+	{
+		return this.isbnIndex;
+	}
+
+	public void setIsbnIndex(final UniqueIndex<String> isbnIndex)
+	{
+		this.isbnIndex = isbnIndex;
+	}
+
+	public UniqueIndex<String> getAuthorEmailIndex()
+	{
+		return this.authorEmailIndex;
+	}
+
+	public void setAuthorEmailIndex(final UniqueIndex<String> authorEmailIndex)
+	{
+		this.authorEmailIndex = authorEmailIndex;
+	}
+
+	public UniqueIndex<String> getPublisherEmailIndex()
+	{
+		return this.publisherEmailIndex;
+	}
+
+	public void setPublisherEmailIndex(final UniqueIndex<String> publisherEmailIndex)
+	{
+		this.publisherEmailIndex = publisherEmailIndex;
+	}
+
+	public NGramIndex getBookTitleIndex()
+	{
+		return this.bookTitleIndex;
+	}
+
+	public void setBookTitleIndex(final NGramIndex bookTitleIndex)
+	{
+		this.bookTitleIndex = bookTitleIndex;
+	}
+
+	public NGramIndex getAuthorNameIndex()
+	{
+		return this.authorNameIndex;
+	}
+
+	public void setAuthorNameIndex(final NGramIndex authorNameIndex)
+	{
+		this.authorNameIndex = authorNameIndex;
+	}
+
+	public NGramIndex getPublisherCompanyIndex()
+	{
+		return this.publisherCompanyIndex;
+	}
+
+	public void setPublisherCompanyIndex(final NGramIndex publisherCompanyIndex)
+	{
+		this.publisherCompanyIndex = publisherCompanyIndex;
+	}
 }
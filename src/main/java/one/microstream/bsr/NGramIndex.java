@@ -0,0 +1,453 @@
+package one.microstream.bsr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.serializer.persistence.types.PersistenceStoring;
+import org.eclipse.serializer.reference.Lazy;
+
+/**
+ * Persisted inverted index from the n-grams of a text to the ids of the entities containing it. Ids have to be
+ * positive and added in ascending order, which keeps every posting list sorted and allows intersecting them without
+ * loading all of their blocks.
+ * <p>
+ * The n-grams are spread over a fixed number of lazily loaded buckets like the keys of a {@link UniqueIndex}, and the
+ * blocks of a posting list are kept in directories of a bounded size, so adding an id only stores the block it went
+ * into and, now and then, a bucket or a single directory.
+ * <p>
+ * A single writer at a time may modify the index while any number of readers query it. Queries capture the posting
+ * lists they need under a read lock and walk them without it, the writer only holds the write lock per indexed text.
+ * Unless the index is marked as {@link #setSingleWriter(boolean) single writer}, the length of a posting list is
+ * counted again for every query, as replication appends ids to the blocks without going through the index.
+ */
+public class NGramIndex
+{
+	public static final int GRAM_LENGTH = 3;
+	public static final int DEFAULT_BUCKET_COUNT = 1024;
+	private static final int BLOCK_SIZE = 128;
+	private static final int DIRECTORY_SIZE = 256;
+
+	private final List<Lazy<Map<String, Postings>>> buckets;
+	// not initialized for loaded instances, created on first use
+	private transient volatile ReadWriteLock lock;
+	private transient volatile boolean singleWriter;
+
+	public NGramIndex()
+	{
+		this(DEFAULT_BUCKET_COUNT);
+	}
+
+	public NGramIndex(final int bucketCount)
+	{
+		this.buckets = new ArrayList<>(bucketCount);
+		for (int i = 0; i < bucketCount; i++)
+		{
+			this.buckets.add(Lazy.Reference(new HashMap<>()));
+		}
+	}
+
+	/**
+	 * @param singleWriter whether all modifications go through this instance, only then the counted length of a
+	 *        posting list is kept instead of being counted again from its last block
+	 */
+	public void setSingleWriter(final boolean singleWriter)
+	{
+		this.singleWriter = singleWriter;
+	}
+
+	private ReadWriteLock lock()
+	{
+		final ReadWriteLock current = this.lock;
+		if (current != null)
+		{
+			return current;
+		}
+		synchronized (this.buckets)
+		{
+			if (this.lock == null)
+			{
+				this.lock = new ReentrantReadWriteLock();
+			}
+			return this.lock;
+		}
+	}
+
+	private Map<String, Postings> bucket(final String gram)
+	{
+		return this.buckets.get(Math.floorMod(gram.hashCode(), this.buckets.size())).get();
+	}
+
+	public static String normalize(final String text)
+	{
+		return text.toLowerCase();
+	}
+
+	private static Set<String> grams(final String normalizedText)
+	{
+		final Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM_LENGTH <= normalizedText.length(); i++)
+		{
+			grams.add(normalizedText.substring(i, i + GRAM_LENGTH));
+		}
+		return grams;
+	}
+
+	public void add(final long id, final String text, final PersistenceStoring storing)
+	{
+		final Set<Object> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		this.index(id, text, changed);
+		storing.storeAll(changed);
+	}
+
+	public <T> void addAll(
+		final Collection<T> items,
+		final ToLongFunction<T> idOf,
+		final Function<T, String> textOf,
+		final PersistenceStoring storing
+	)
+	{
+		// a storer skips instances it has already seen, so every changed instance is stored once after indexing
+		final Set<Object> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (final T item : items)
+		{
+			this.index(idOf.applyAsLong(item), textOf.apply(item), changed);
+		}
+		storing.storeAll(changed);
+	}
+
+	private void index(final long id, final String text, final Set<Object> changed)
+	{
+		final Set<String> grams = grams(normalize(text));
+		final Lock writeLock = this.lock().writeLock();
+		writeLock.lock();
+		try
+		{
+			for (final String gram : grams)
+			{
+				final Map<String, Postings> bucket = this.bucket(gram);
+				var gramPostings = bucket.get(gram);
+				if (gramPostings == null)
+				{
+					gramPostings = new Postings();
+					bucket.put(gram, gramPostings);
+					changed.add(bucket);
+				}
+				gramPostings.add(id, changed, this.singleWriter);
+			}
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+	}
+
+	public LongStream candidates(final String normalizedQuery)
+	{
+		return this.candidates(normalizedQuery, 0L);
+	}
+
+	/**
+	 * Returns the ascending ids greater than <code>afterId</code> of all entities whose text contains every n-gram of
+	 * the normalized query. The candidates still have to be checked against the query. Returns <code>null</code> if
+	 * the query is too short to be answered by the index.
+	 */
+	public LongStream candidates(final String normalizedQuery, final long afterId)
+	{
+		final Set<String> grams = grams(normalizedQuery);
+		if (grams.isEmpty())
+		{
+			return null;
+		}
+
+		final List<Postings.View> lists = new ArrayList<>(grams.size());
+		final Lock readLock = this.lock().readLock();
+		readLock.lock();
+		try
+		{
+			for (final String gram : grams)
+			{
+				final var gramPostings = this.bucket(gram).get(gram);
+				if (gramPostings == null)
+				{
+					return LongStream.empty();
+				}
+				lists.add(gramPostings.view(this.singleWriter));
+			}
+		}
+		finally
+		{
+			readLock.unlock();
+		}
+		// walk the shortest list and probe the others
+		lists.sort(Comparator.comparingInt(Postings.View::size));
+		final Postings.View shortest = lists.getFirst();
+		final List<Postings.View> others = lists.subList(1, lists.size());
+
+		return StreamSupport.longStream(
+			Spliterators.spliteratorUnknownSize(
+				shortest.iterator(shortest.positionAfter(afterId)),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL
+			),
+			false
+		).filter(id -> others.stream().allMatch(p -> p.contains(id)));
+	}
+
+	public void clear(final PersistenceStoring storing)
+	{
+		final Lock writeLock = this.lock().writeLock();
+		writeLock.lock();
+		try
+		{
+			// replacing the buckets avoids loading every one of them just to empty it
+			for (int i = 0; i < this.buckets.size(); i++)
+			{
+				this.buckets.set(i, Lazy.Reference(new HashMap<>()));
+			}
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+		storing.store(this.buckets);
+	}
+
+	static class Postings
+	{
+		private final List<Directory> directories = new ArrayList<>();
+		// derived from the last block instead of storing the list with every added id
+		private transient int size;
+		private transient boolean counted;
+
+		Postings()
+		{
+		}
+
+		/**
+		 * @param trusted whether the count of an earlier call is still valid, i.e. nothing but this instance appends
+		 */
+		private synchronized int size(final boolean trusted)
+		{
+			if (!trusted || !this.counted)
+			{
+				this.size = this.count();
+				this.counted = true;
+			}
+			return this.size;
+		}
+
+		private int count()
+		{
+			if (this.directories.isEmpty())
+			{
+				return 0;
+			}
+			final Directory last = this.directories.getLast();
+			int blocks = 1;
+			while (blocks < last.blocks.length && last.blocks[blocks] != null)
+			{
+				blocks++;
+			}
+			// unused slots of the last block are zero, ids are positive
+			final long[] lastBlock = last.block(blocks - 1);
+			int length = 1;
+			while (length < BLOCK_SIZE && lastBlock[length] != 0L)
+			{
+				length++;
+			}
+			return ((this.directories.size() - 1) * DIRECTORY_SIZE + blocks - 1) * BLOCK_SIZE + length;
+		}
+
+		void add(final long id, final Set<Object> changed, final boolean trusted)
+		{
+			final int size = this.size(trusted);
+			final int blockIndex = size / BLOCK_SIZE;
+			final int offset = size % BLOCK_SIZE;
+			if (offset == 0)
+			{
+				if (blockIndex % DIRECTORY_SIZE == 0)
+				{
+					this.directories.add(new Directory());
+					changed.add(this.directories);
+				}
+				this.directories.getLast().add(blockIndex % DIRECTORY_SIZE, id, changed);
+			}
+			else
+			{
+				final long[] block = this.directories.getLast().block(blockIndex % DIRECTORY_SIZE);
+				block[offset] = id;
+				changed.add(block);
+			}
+			this.size = size + 1;
+		}
+
+		/**
+		 * Captures the ids added so far. Ids and blocks are only ever appended and a directory array is replaced
+		 * instead of being resized, so the view stays valid without a lock.
+		 */
+		View view(final boolean trusted)
+		{
+			final int size = this.size(trusted);
+			final List<Lazy<?>[]> blocks = new ArrayList<>(this.directories.size());
+			final List<long[]> firstIds = new ArrayList<>(this.directories.size());
+			for (final Directory directory : this.directories)
+			{
+				blocks.add(directory.blocks);
+				firstIds.add(directory.firstIds);
+			}
+			return new View(blocks, firstIds, size);
+		}
+
+		/**
+		 * A bounded number of blocks of a posting list with the first id of each. The arrays grow by doubling until
+		 * they are full, afterwards the next block opens a new directory.
+		 */
+		static class Directory
+		{
+			private Lazy<?>[] blocks = new Lazy<?>[1];
+			private long[] firstIds = new long[1];
+
+			Directory()
+			{
+			}
+
+			@SuppressWarnings("unchecked")
+			long[] block(final int slot)
+			{
+				return ((Lazy<long[]>)this.blocks[slot]).get();
+			}
+
+			void add(final int slot, final long id, final Set<Object> changed)
+			{
+				if (slot == this.blocks.length)
+				{
+					this.blocks = Arrays.copyOf(this.blocks, Math.min(slot * 2, DIRECTORY_SIZE));
+					this.firstIds = Arrays.copyOf(this.firstIds, this.blocks.length);
+					changed.add(this);
+				}
+				final long[] block = new long[BLOCK_SIZE];
+				block[0] = id;
+				this.blocks[slot] = Lazy.Reference(block);
+				this.firstIds[slot] = id;
+				changed.add(this.blocks);
+				changed.add(this.firstIds);
+			}
+		}
+
+		record View(List<Lazy<?>[]> blocks, List<long[]> firstIds, int size)
+		{
+			@SuppressWarnings("unchecked")
+			private long[] block(final int blockIndex)
+			{
+				return ((Lazy<long[]>)this.blocks.get(blockIndex / DIRECTORY_SIZE)[blockIndex % DIRECTORY_SIZE]).get();
+			}
+
+			private long firstId(final int blockIndex)
+			{
+				return this.firstIds.get(blockIndex / DIRECTORY_SIZE)[blockIndex % DIRECTORY_SIZE];
+			}
+
+			private int blockCount()
+			{
+				return (this.size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+			}
+
+			private int blockLength(final int blockIndex)
+			{
+				return blockIndex < this.blockCount() - 1 ? BLOCK_SIZE : this.size - blockIndex * BLOCK_SIZE;
+			}
+
+			/**
+			 * @return the index of the last block starting at or before the id, -1 if the id precedes all blocks
+			 */
+			private int floorBlock(final long id)
+			{
+				int low = 0;
+				int high = this.blockCount() - 1;
+				while (low <= high)
+				{
+					final int middle = (low + high) >>> 1;
+					if (this.firstId(middle) <= id)
+					{
+						low = middle + 1;
+					}
+					else
+					{
+						high = middle - 1;
+					}
+				}
+				return high;
+			}
+
+			boolean contains(final long id)
+			{
+				final int blockIndex = this.floorBlock(id);
+				if (blockIndex < 0)
+				{
+					return false;
+				}
+				return this.firstId(blockIndex) == id
+					|| Arrays.binarySearch(this.block(blockIndex), 0, this.blockLength(blockIndex), id) >= 0;
+			}
+
+			int positionAfter(final long id)
+			{
+				final int blockIndex = this.floorBlock(id);
+				if (blockIndex < 0)
+				{
+					return 0;
+				}
+				if (this.firstId(blockIndex) == id)
+				{
+					return blockIndex * BLOCK_SIZE + 1;
+				}
+				final int inBlock = Arrays.binarySearch(this.block(blockIndex), 0, this.blockLength(blockIndex), id);
+				return blockIndex * BLOCK_SIZE + (inBlock >= 0 ? inBlock + 1 : -inBlock - 1);
+			}
+
+			PrimitiveIterator.OfLong iterator(final int startPosition)
+			{
+				return new PrimitiveIterator.OfLong()
+				{
+					private int position = startPosition;
+
+					@Override
+					public boolean hasNext()
+					{
+						return this.position < View.this.size;
+					}
+
+					@Override
+					public long nextLong()
+					{
+						if (!this.hasNext())
+						{
+							throw new NoSuchElementException();
+						}
+						final long[] block = View.this.block(this.position / BLOCK_SIZE);
+						return block[this.position++ % BLOCK_SIZE];
+					}
+				};
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package one.microstream.bsr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.serializer.persistence.types.PersistenceStoring;
+import org.eclipse.serializer.reference.Lazy;
+
+/**
+ * Persisted unique key to id mapping. The keys are spread over a fixed number of lazily loaded buckets, so a lookup
+ * only loads the bucket the key hashes to and an update only stores that bucket. Keys must have a hash code that is
+ * stable across JVM runs, e.g. {@link String}.
+ */
+public class UniqueIndex<K>
+{
+	public static final int DEFAULT_BUCKET_COUNT = 4096;
+
+	private final List<Lazy<Map<K, Long>>> buckets;
+
+	public UniqueIndex()
+	{
+		this(DEFAULT_BUCKET_COUNT);
+	}
+
+	public UniqueIndex(final int bucketCount)
+	{
+		this.buckets = new ArrayList<>(bucketCount);
+		for (int i = 0; i < bucketCount; i++)
+		{
+			this.buckets.add(Lazy.Reference(new HashMap<>()));
+		}
+	}
+
+	private int bucketIndex(final K key)
+	{
+		return Math.floorMod(key.hashCode(), this.buckets.size());
+	}
+
+	private Map<K, Long> bucket(final K key)
+	{
+		return this.buckets.get(this.bucketIndex(key)).get();
+	}
+
+	public Long get(final K key)
+	{
+		return this.bucket(key).get(key);
+	}
+
+	public boolean contains(final K key)
+	{
+		return this.bucket(key).containsKey(key);
+	}
+
+	public void put(final K key, final long id, final PersistenceStoring storing)
+	{
+		final var bucket = this.bucket(key);
+		bucket.put(key, id);
+		storing.store(bucket);
+	}
+
+	public void putAll(final Map<K, Long> entries, final PersistenceStoring storing)
+	{
+		// group by bucket first so every touched bucket is stored exactly once
+		final Map<Integer, Map<K, Long>> touched = new HashMap<>();
+		for (final var entry : entries.entrySet())
+		{
+			final int bucketIndex = this.bucketIndex(entry.getKey());
+			final var bucket = touched.computeIfAbsent(bucketIndex, i -> this.buckets.get(i).get());
+			bucket.put(entry.getKey(), entry.getValue());
+		}
+
+		storing.storeAll(touched.values());
+	}
+
+	public void clear(final PersistenceStoring storing)
+	{
+		// replacing the buckets avoids loading every one of them just to empty it
+		for (int i = 0; i < this.buckets.size(); i++)
+		{
+			this.buckets.set(i, Lazy.Reference(new HashMap<>()));
+		}
+		storing.store(this.buckets);
+	}
+}
@@ -0,0 +1,14 @@
+package one.microstream.bsr.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.PositiveOrZero;
+
+@ConfigurationProperties("bsr.chunk-residency")
+public record ChunkResidencyConfiguration(
+	@Bindable(defaultValue = "0") @PositiveOrZero int maxResidentChunks,
+	@Bindable(defaultValue = "0") @PositiveOrZero @DecimalMax("1") double maxHeapUsage
+)
+{
+}
@@ -0,0 +1,14 @@
+package one.microstream.bsr.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+import jakarta.validation.constraints.Positive;
+
+@ConfigurationProperties("bsr.chunk-size")
+public record ChunkSizeConfiguration(
+	@Bindable(defaultValue = "1000") @Positive int books,
+	@Bindable(defaultValue = "1000") @Positive int authors,
+	@Bindable(defaultValue = "1000") @Positive int publishers
+)
+{
+}
@@ -0,0 +1,28 @@
+package one.microstream.bsr.config;
+
+import java.time.Duration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@ConfigurationProperties("bsr.concurrency-limit")
+public record ConcurrencyLimitConfiguration(
+	@Bindable(defaultValue = "false") boolean enabled,
+	@Bindable(defaultValue = "64") @Positive int readInitialLimit,
+	@Bindable(defaultValue = "1024") @Positive int readMaxLimit,
+	@Bindable(defaultValue = "100ms") @NotNull Duration readLatencyThreshold,
+	@Bindable(defaultValue = "4") @Positive int writeInitialLimit,
+	@Bindable(defaultValue = "64") @Positive int writeMaxLimit,
+	@Bindable(defaultValue = "2s") @NotNull Duration writeLatencyThreshold,
+	@Bindable(defaultValue = "4") @Positive int streamInitialLimit,
+	@Bindable(defaultValue = "32") @Positive int streamMaxLimit,
+	@Bindable(defaultValue = "60s") @NotNull Duration streamLatencyThreshold,
+	@Bindable(defaultValue = "1") @Positive int minLimit,
+	@Bindable(defaultValue = "0.9") @DecimalMin("0.1") @DecimalMax("0.99") double backoffRatio
+)
+{
+}
@@ -0,0 +1,17 @@
+package one.microstream.bsr.config;
+
+import java.time.Duration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@ConfigurationProperties("bsr.group-commit")
+public record GroupCommitConfiguration(
+	@Bindable(defaultValue = "false") boolean enabled,
+	@Bindable(defaultValue = "128") @Positive int maxBatchSize,
+	@Bindable(defaultValue = "2ms") @NotNull Duration maxLinger
+)
+{
+}
@@ -0,0 +1,9 @@
+package one.microstream.bsr.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+@ConfigurationProperties("bsr.optimistic-reads")
+public record OptimisticReadConfiguration(@Bindable(defaultValue = "false") boolean enabled)
+{
+}
@@ -0,0 +1,13 @@
+package one.microstream.bsr.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+import jakarta.validation.constraints.Positive;
+
+@ConfigurationProperties("bsr.search-cache")
+public record SearchCacheConfiguration(
+	@Bindable(defaultValue = "false") boolean enabled,
+	@Bindable(defaultValue = "100000") @Positive long maxResults
+)
+{
+}
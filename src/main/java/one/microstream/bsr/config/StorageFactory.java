@@ -0,0 +1,15 @@
+package one.microstream.bsr.config;
+
+import io.micronaut.context.annotation.Factory;
+import jakarta.inject.Singleton;
+import one.microstream.bsr.ChunkResidencyManager;
+
+@Factory
+public class StorageFactory
+{
+	@Singleton
+	public ChunkResidencyManager chunkResidencyManager(final ChunkResidencyConfiguration configuration)
+	{
+		return new ChunkResidencyManager(configuration.maxResidentChunks(), configuration.maxHeapUsage());
+	}
+}
@@ -0,0 +1,120 @@
+package one.microstream.bsr.controller;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Additive increase, multiplicative decrease limit of concurrent requests. Every request that completes within the
+ * latency threshold while the limit was at least half used raises the limit by one, every slower or failed request
+ * lowers it by the backoff ratio. Requests over the limit are not queued but rejected right away.
+ */
+public final class AimdLimiter
+{
+	private final String controller;
+	private final String kind;
+	private final int minLimit;
+	private final int maxLimit;
+	private final long latencyThresholdNanos;
+	private final double backoffRatio;
+
+	// guarded by this
+	private double limit;
+	private int inFlight;
+
+	private final LongAdder rejected = new LongAdder();
+
+	AimdLimiter(
+		final String controller,
+		final String kind,
+		final int initialLimit,
+		final int minLimit,
+		final int maxLimit,
+		final Duration latencyThreshold,
+		final double backoffRatio
+	)
+	{
+		this.controller = controller;
+		this.kind = kind;
+		this.minLimit = minLimit;
+		this.maxLimit = Math.max(minLimit, maxLimit);
+		this.latencyThresholdNanos = latencyThreshold.toNanos();
+		this.backoffRatio = backoffRatio;
+		this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+	}
+
+	/**
+	 * @return the permit of the request, <code>null</code> if the limit is reached
+	 */
+	Permit tryAcquire()
+	{
+		synchronized (this)
+		{
+			if (this.inFlight < (int)this.limit)
+			{
+				this.inFlight++;
+				return new Permit();
+			}
+		}
+		this.rejected.increment();
+		return null;
+	}
+
+	private synchronized void release(final long latencyNanos, final boolean dropped)
+	{
+		final int wasInFlight = this.inFlight--;
+		if (dropped || latencyNanos > this.latencyThresholdNanos)
+		{
+			this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+		}
+		// an idle limit is not raised, it would say nothing about the latency at that concurrency
+		else if (wasInFlight * 2 >= this.limit)
+		{
+			this.limit = Math.min(this.maxLimit, this.limit + 1.0);
+		}
+	}
+
+	public String getController()
+	{
+		return this.controller;
+	}
+
+	public String getKind()
+	{
+		return this.kind;
+	}
+
+	public synchronized int getLimit()
+	{
+		return (int)this.limit;
+	}
+
+	public synchronized int getInFlight()
+	{
+		return this.inFlight;
+	}
+
+	public long getRejected()
+	{
+		return this.rejected.sum();
+	}
+
+	final class Permit
+	{
+		private final long start = System.nanoTime();
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		/**
+		 * Returns the permit, only the first call counts.
+		 *
+		 * @param dropped whether the request failed, which is treated like exceeding the latency threshold
+		 */
+		void release(final boolean dropped)
+		{
+			if (this.released.compareAndSet(false, true))
+			{
+				AimdLimiter.this.release(System.nanoTime() - this.start, dropped);
+			}
+		}
+	}
+}
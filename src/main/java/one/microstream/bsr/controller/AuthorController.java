@@ -1,12 +1,14 @@
 package one.microstream.bsr.controller;
 
 import java.util.List;
-import java.util.Optional;
 
 import io.micrometer.observation.annotation.Observed;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Error;
@@ -16,25 +18,39 @@ import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.Put;
 import io.micronaut.http.annotation.QueryValue;
 import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import one.microstream.bsr.domain.Author;
 import one.microstream.bsr.dto.AuthorDto;
+import one.microstream.bsr.dto.ImportSummaryDto;
 import one.microstream.bsr.exception.IndexAlreadyExistsException;
 import one.microstream.bsr.repository.AuthorRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Observed
 @Controller("/author")
+@ExecuteOn("author-controller")
 public class AuthorController
 {
 	private final AuthorRepository authors;
+	private final Validator validator;
+	private final EncodedResponseCache responses;
 
-	public AuthorController(final AuthorRepository authors)
+	public AuthorController(
+		final AuthorRepository authors,
+		final Validator validator,
+		final EncodedResponseCache responses
+	)
 	{
 		this.authors = authors;
+		this.validator = validator;
+		this.responses = responses;
 	}
 
 	@Error(exception = IndexAlreadyExistsException.class, status = HttpStatus.BAD_REQUEST)
@@ -50,14 +66,23 @@ public class AuthorController
 	}
 
 	@Get("/search")
-	public List<AuthorDto> searchAuthors(
+	public HttpResponse<List<AuthorDto>> searchAuthors(
 		@QueryValue("name") @NonNull @NotBlank final String name,
 		@QueryValue("page") @Nullable @PositiveOrZero final Integer page,
-		@QueryValue("pageSize") @Nullable @PositiveOrZero final Integer pageSize
+		@QueryValue("pageSize") @Nullable @PositiveOrZero final Integer pageSize,
+		@QueryValue("cursor") @Nullable final String cursor
 	)
 	{
 		final List<Author> searchedAuthors;
-		if (pageSize == null && page == null)
+		if (cursor != null && pageSize == null)
+		{
+			searchedAuthors = this.authors.searchAuthorsByNameAfter(name, SearchCursor.decode(cursor));
+		}
+		else if (cursor != null)
+		{
+			searchedAuthors = this.authors.searchAuthorsByNameAfter(name, SearchCursor.decode(cursor), pageSize);
+		}
+		else if (pageSize == null && page == null)
 		{
 			searchedAuthors = this.authors.searchAuthorsByName(name);
 		}
@@ -69,19 +94,61 @@ public class AuthorController
 		{
 			searchedAuthors = this.authors.searchAuthorsByName(name, page, pageSize);
 		}
-		return searchedAuthors.stream().map(AuthorDto::new).toList();
+		return SearchCursor.page(
+			searchedAuthors,
+			pageSize,
+			AuthorRepository.PAGE_SIZE_LIMIT,
+			AuthorDto::new,
+			Author::getId
+		);
+	}
+
+	@Get(value = "/search/stream", produces = MediaType.APPLICATION_JSON_STREAM)
+	public Flux<AuthorDto> searchAuthorsStream(@QueryValue("name") @NonNull @NotBlank final String name)
+	{
+		return ResultStream.of(
+			afterId -> this.authors.searchAuthorsByNameAfter(name, afterId),
+			Author::getId,
+			AuthorDto::new
+		);
 	}
 
-	@Get("/{email}")
-	public AuthorDto getAuthorByEmail(@NonNull @NotBlank @PathVariable final String email)
+	@Get(value = "/export", produces = MediaType.APPLICATION_JSON_STREAM)
+	public Flux<AuthorDto> exportAuthors()
 	{
-		return Optional.ofNullable(this.authors.getAuthorByEmail(email)).map(AuthorDto::new).orElse(null);
+		return ResultStream.of(this.authors::listAuthorsAfter, Author::getId, AuthorDto::new);
 	}
 
-	@Get("/id/{id}")
-	public AuthorDto getAuthorById(@NonNull @PathVariable @Positive final Long id)
+	@Get(value = "/{email}", produces = {MediaType.APPLICATION_JSON, EncodedResponseCache.APPLICATION_BSON})
+	public HttpResponse<byte[]> getAuthorByEmail(
+		final HttpRequest<?> request,
+		@NonNull @NotBlank @PathVariable final String email
+	)
+	{
+		return this.responses.get(
+			request,
+			"author",
+			() -> this.authors.getAuthorByEmail(email),
+			Author::getId,
+			AuthorDto::new,
+			AuthorDto.class
+		);
+	}
+
+	@Get(value = "/id/{id}", produces = {MediaType.APPLICATION_JSON, EncodedResponseCache.APPLICATION_BSON})
+	public HttpResponse<byte[]> getAuthorById(
+		final HttpRequest<?> request,
+		@NonNull @PathVariable @Positive final Long id
+	)
 	{
-		return Optional.ofNullable(this.authors.getAuthorById(id)).map(AuthorDto::new).orElse(null);
+		return this.responses.get(
+			request,
+			"author",
+			() -> this.authors.getAuthorById(id),
+			Author::getId,
+			AuthorDto::new,
+			AuthorDto.class
+		);
 	}
 
 	@Put
@@ -103,9 +170,15 @@ public class AuthorController
 		}
 	}
 
+	@Post(value = "/import", consumes = MediaType.APPLICATION_JSON_STREAM)
+	public Mono<ImportSummaryDto> importAuthors(@Body @NonNull final Flux<AuthorDto> dtos)
+	{
+		return BulkImport.of(dtos, this.validator, Author::new, this.authors::importAuthors);
+	}
+
 	@Post("/clear")
 	public void clearAuthors()
 	{
-		this.authors.clearAuthors();
+		this.authors.clearAuthors(this.responses::invalidateAll);
 	}
 }
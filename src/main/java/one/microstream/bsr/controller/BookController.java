@@ -1,12 +1,14 @@
 package one.microstream.bsr.controller;
 
 import java.util.List;
-import java.util.Optional;
 
 import io.micrometer.observation.annotation.Observed;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Error;
@@ -16,7 +18,9 @@ import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.Put;
 import io.micronaut.http.annotation.QueryValue;
 import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
@@ -24,28 +28,38 @@ import jakarta.validation.constraints.PositiveOrZero;
 import one.microstream.bsr.domain.Book;
 import one.microstream.bsr.dto.BookDto;
 import one.microstream.bsr.dto.BookReferenceDto;
+import one.microstream.bsr.dto.ImportSummaryDto;
 import one.microstream.bsr.exception.IndexAlreadyExistsException;
 import one.microstream.bsr.repository.AuthorRepository;
 import one.microstream.bsr.repository.BookRepository;
 import one.microstream.bsr.repository.PublisherRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Observed
 @Controller("/book")
+@ExecuteOn("book-controller")
 public class BookController
 {
 	private final BookRepository books;
 	private final AuthorRepository authors;
 	private final PublisherRepository publishers;
+	private final Validator validator;
+	private final EncodedResponseCache responses;
 
 	public BookController(
 		final BookRepository books,
 		final AuthorRepository authors,
-		final PublisherRepository publishers
+		final PublisherRepository publishers,
+		final Validator validator,
+		final EncodedResponseCache responses
 	)
 	{
 		this.books = books;
 		this.authors = authors;
 		this.publishers = publishers;
+		this.validator = validator;
+		this.responses = responses;
 	}
 
 	@Error(exception = IndexAlreadyExistsException.class, status = HttpStatus.BAD_REQUEST)
@@ -61,14 +75,23 @@ public class BookController
 	}
 
 	@Get("/search")
-	public List<BookDto> searchBook(
+	public HttpResponse<List<BookDto>> searchBook(
 		@QueryValue("title") @NonNull @NotBlank final String title,
 		@QueryValue("page") @Nullable @PositiveOrZero final Integer page,
-		@QueryValue("pageSize") @Nullable @PositiveOrZero final Integer pageSize
+		@QueryValue("pageSize") @Nullable @PositiveOrZero final Integer pageSize,
+		@QueryValue("cursor") @Nullable final String cursor
 	)
 	{
 		final List<Book> searchedBooks;
-		if (pageSize == null && page == null)
+		if (cursor != null && pageSize == null)
+		{
+			searchedBooks = this.books.searchBooksByTitleAfter(title, SearchCursor.decode(cursor));
+		}
+		else if (cursor != null)
+		{
+			searchedBooks = this.books.searchBooksByTitleAfter(title, SearchCursor.decode(cursor), pageSize);
+		}
+		else if (pageSize == null && page == null)
 		{
 			searchedBooks = this.books.searchBooksByTitle(title);
 		}
@@ -80,19 +103,61 @@ public class BookController
 		{
 			searchedBooks = this.books.searchBooksByTitle(title, page, pageSize);
 		}
-		return searchedBooks.stream().map(BookDto::new).toList();
+		return SearchCursor.page(searchedBooks, pageSize, BookRepository.PAGE_SIZE_LIMIT, BookDto::new, Book::getId);
+	}
+
+	@Get("/search/count")
+	public long countBooksByTitle(@QueryValue("title") @NonNull @NotBlank final String title)
+	{
+		return this.books.countBooksByTitle(title);
+	}
+
+	@Get(value = "/search/stream", produces = MediaType.APPLICATION_JSON_STREAM)
+	public Flux<BookDto> searchBookStream(@QueryValue("title") @NonNull @NotBlank final String title)
+	{
+		return ResultStream.of(
+			afterId -> this.books.searchBooksByTitleAfter(title, afterId),
+			Book::getId,
+			BookDto::new
+		);
+	}
+
+	@Get(value = "/export", produces = MediaType.APPLICATION_JSON_STREAM)
+	public Flux<BookDto> exportBooks()
+	{
+		return ResultStream.of(this.books::listBooksAfter, Book::getId, BookDto::new);
 	}
 
-	@Get("/{isbn}")
-	public BookDto getBookByIsbn(@NonNull @NotBlank @PathVariable final String isbn)
+	@Get(value = "/{isbn}", produces = {MediaType.APPLICATION_JSON, EncodedResponseCache.APPLICATION_BSON})
+	public HttpResponse<byte[]> getBookByIsbn(
+		final HttpRequest<?> request,
+		@NonNull @NotBlank @PathVariable final String isbn
+	)
 	{
-		return Optional.ofNullable(this.books.getBookByISBN(isbn)).map(BookDto::new).orElse(null);
+		return this.responses.get(
+			request,
+			"book",
+			() -> this.books.getBookByISBN(isbn),
+			Book::getId,
+			BookDto::new,
+			BookDto.class
+		);
 	}
 
-	@Get("/id/{id}")
-	public BookDto getBookById(@NonNull @PathVariable @Positive final Long id)
+	@Get(value = "/id/{id}", produces = {MediaType.APPLICATION_JSON, EncodedResponseCache.APPLICATION_BSON})
+	public HttpResponse<byte[]> getBookById(
+		final HttpRequest<?> request,
+		@NonNull @PathVariable @Positive final Long id
+	)
 	{
-		return Optional.ofNullable(this.books.getBookById(id)).map(BookDto::new).orElse(null);
+		return this.responses.get(
+			request,
+			"book",
+			() -> this.books.getBookById(id),
+			Book::getId,
+			BookDto::new,
+			BookDto.class
+		);
 	}
 
 	@Put
@@ -132,9 +197,28 @@ public class BookController
 		return book;
 	}
 
+	@Post("/rechunk")
+	public void rechunkBooks(@QueryValue("chunkSize") @NonNull @Positive final Integer chunkSize)
+	{
+		try
+		{
+			this.books.rechunkBooks(chunkSize);
+		}
+		catch (final IllegalStateException e)
+		{
+			throw new HttpStatusException(HttpStatus.CONFLICT, e.getMessage());
+		}
+	}
+
+	@Post(value = "/import", consumes = MediaType.APPLICATION_JSON_STREAM)
+	public Mono<ImportSummaryDto> importBooks(@Body @NonNull final Flux<BookReferenceDto> dtos)
+	{
+		return BulkImport.of(dtos, this.validator, this::convertDtoToBook, this.books::importBooks);
+	}
+
 	@Post("/clear")
 	public void clearBooks()
 	{
-		this.books.clearBooks();
+		this.books.clearBooks(this.responses::invalidateAll);
 	}
 }
@@ -0,0 +1,69 @@
+package one.microstream.bsr.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import io.micronaut.http.exceptions.HttpStatusException;
+import jakarta.validation.Validator;
+import one.microstream.bsr.dto.ImportSummaryDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Imports a streamed request body in sub-batches of {@link #SUB_BATCH_SIZE} rows, each one inserted under its own
+ * write lock. Only the current and the next sub-batch are held in memory. Invalid rows and rows with an already taken
+ * key are skipped and counted as rejected.
+ */
+final class BulkImport
+{
+	static final int SUB_BATCH_SIZE = 1000;
+
+	private BulkImport()
+	{
+	}
+
+	static <D, E> Mono<ImportSummaryDto> of(
+		final Flux<D> rows,
+		final Validator validator,
+		final Function<D, E> toEntity,
+		final ToIntFunction<List<E>> insert
+	)
+	{
+		return rows
+			.buffer(SUB_BATCH_SIZE)
+			// the inserts block on the write lock, a prefetch of one stops reading the body while a sub-batch is applied
+			.publishOn(Schedulers.boundedElastic(), 1)
+			.map(batch -> importBatch(batch, validator, toEntity, insert))
+			.reduce(new ImportSummaryDto(0L, 0L), ImportSummaryDto::add);
+	}
+
+	private static <D, E> ImportSummaryDto importBatch(
+		final List<D> batch,
+		final Validator validator,
+		final Function<D, E> toEntity,
+		final ToIntFunction<List<E>> insert
+	)
+	{
+		final List<E> entities = new ArrayList<>(batch.size());
+		for (final D row : batch)
+		{
+			if (!validator.validate(row).isEmpty())
+			{
+				continue;
+			}
+			try
+			{
+				entities.add(toEntity.apply(row));
+			}
+			catch (final HttpStatusException e)
+			{
+				// references that cannot be resolved reject the row only
+			}
+		}
+		final int accepted = entities.isEmpty() ? 0 : insert.applyAsInt(entities);
+		return new ImportSummaryDto(accepted, batch.size() - accepted);
+	}
+}
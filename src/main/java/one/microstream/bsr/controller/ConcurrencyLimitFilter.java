@@ -0,0 +1,146 @@
+package one.microstream.bsr.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Publisher;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpMethod;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import one.microstream.bsr.config.ConcurrencyLimitConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds load before requests pile up behind the repository locks. Reads (<code>GET</code>), streamed reads and writes
+ * of every controller have their own {@link AimdLimiter}, requests over the limit are answered with
+ * <code>503 Service Unavailable</code> right away. Streamed reads fetch a page under the read lock whenever the
+ * client demands more, so they hold their permit until the body has been written.
+ */
+@Filter({"/book/**", "/author/**", "/publisher/**"})
+@Requires(property = "bsr.concurrency-limit.enabled", value = "true")
+public class ConcurrencyLimitFilter implements HttpServerFilter
+{
+	private static final List<String> CONTROLLERS = List.of("book", "author", "publisher");
+
+	private final Map<String, AimdLimiter> limiters = new LinkedHashMap<>();
+
+	public ConcurrencyLimitFilter(final ConcurrencyLimitConfiguration configuration)
+	{
+		for (final String controller : CONTROLLERS)
+		{
+			this.limiters.put(
+				controller + ".read",
+				new AimdLimiter(
+					controller,
+					"read",
+					configuration.readInitialLimit(),
+					configuration.minLimit(),
+					configuration.readMaxLimit(),
+					configuration.readLatencyThreshold(),
+					configuration.backoffRatio()
+				)
+			);
+			this.limiters.put(
+				controller + ".write",
+				new AimdLimiter(
+					controller,
+					"write",
+					configuration.writeInitialLimit(),
+					configuration.minLimit(),
+					configuration.writeMaxLimit(),
+					configuration.writeLatencyThreshold(),
+					configuration.backoffRatio()
+				)
+			);
+			this.limiters.put(
+				controller + ".stream",
+				new AimdLimiter(
+					controller,
+					"stream",
+					configuration.streamInitialLimit(),
+					configuration.minLimit(),
+					configuration.streamMaxLimit(),
+					configuration.streamLatencyThreshold(),
+					configuration.backoffRatio()
+				)
+			);
+		}
+	}
+
+	public List<AimdLimiter> getLimiters()
+	{
+		return List.copyOf(this.limiters.values());
+	}
+
+	private AimdLimiter limiterOf(final HttpRequest<?> request)
+	{
+		// the first path segment is the controller
+		final String path = request.getPath();
+		final int end = path.indexOf('/', 1);
+		final String controller = end < 0 ? path.substring(1) : path.substring(1, end);
+		final HttpMethod method = request.getMethod();
+		if (method != HttpMethod.GET && method != HttpMethod.HEAD)
+		{
+			return this.limiters.get(controller + ".write");
+		}
+		final boolean streamed = path.endsWith("/export") || path.endsWith("/search/stream");
+		return this.limiters.get(controller + (streamed ? ".stream" : ".read"));
+	}
+
+	@Override
+	public Publisher<MutableHttpResponse<?>> doFilter(final HttpRequest<?> request, final ServerFilterChain chain)
+	{
+		final AimdLimiter limiter = this.limiterOf(request);
+		if (limiter == null)
+		{
+			return chain.proceed(request);
+		}
+
+		final AimdLimiter.Permit permit = limiter.tryAcquire();
+		if (permit == null)
+		{
+			return Mono.<MutableHttpResponse<?>>just(
+				HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+			);
+		}
+		final AtomicBoolean responded = new AtomicBoolean();
+		return Flux.from(chain.proceed(request))
+			.doOnNext(response ->
+			{
+				responded.set(true);
+				releaseAfterBody(response, permit);
+			})
+			.doFinally(signal ->
+			{
+				// a response hands the permit on to its body
+				if (!responded.get())
+				{
+					permit.release(signal == SignalType.ON_ERROR);
+				}
+			});
+	}
+
+	private static void releaseAfterBody(final MutableHttpResponse<?> response, final AimdLimiter.Permit permit)
+	{
+		if (response.body() instanceof final Publisher<?> body)
+		{
+			response.body(Flux.from(body).doFinally(signal -> permit.release(signal == SignalType.ON_ERROR)));
+		}
+		else
+		{
+			permit.release(response.code() >= 500);
+		}
+	}
+}
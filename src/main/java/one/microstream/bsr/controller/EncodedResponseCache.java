@@ -0,0 +1,125 @@
+package one.microstream.bsr.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.serde.ObjectMapper;
+import io.micronaut.serde.bson.BsonBinaryMapper;
+import jakarta.inject.Singleton;
+import one.microstream.bsr.config.ResponseCacheConfiguration;
+
+/**
+ * Keeps the encoded JSON and BSON responses of point lookups, so a hot entity is serialized once and afterwards only
+ * copied to the network. Stored entities are never modified, they only disappear when a repository is cleared, and
+ * as books embed their author and publisher, every clear invalidates the whole cache from within its write lock.
+ * <p>
+ * Only clears made through the repositories invalidate the cache. A replicated clear followed by new inserts reuses
+ * the ids of the cleared entities, so the cache may only be enabled on nodes that are the single writer of their
+ * storage.
+ */
+@Singleton
+public class EncodedResponseCache
+{
+	public static final String APPLICATION_BSON = "application/bson";
+
+	private static final MediaType BSON = MediaType.of(APPLICATION_BSON);
+
+	private record Key(long generation, String type, long id, boolean bson)
+	{
+	}
+
+	private final JsonMapper json;
+	private final ObjectMapper bson;
+	private final Cache<Key, byte[]> cache;
+	// advanced by every invalidation, entries of older generations are never read again
+	private volatile long generation;
+
+	public EncodedResponseCache(
+		final JsonMapper json,
+		final BsonBinaryMapper bson,
+		final ResponseCacheConfiguration configuration
+	)
+	{
+		this.json = json;
+		this.bson = bson;
+		this.cache = configuration.enabled()
+			? Caffeine.newBuilder()
+				.maximumWeight(configuration.maxBytes())
+				.<Key, byte[]>weigher((key, bytes) -> bytes.length)
+				.build()
+			: null;
+	}
+
+	/**
+	 * Looks up an entity and responds with its encoding in the format the request accepts, BSON or otherwise JSON.
+	 *
+	 * @param type the kind of entity, part of the cache key
+	 * @param lookup the repository lookup, <code>null</code> results in a 404 response
+	 */
+	public <E, D> HttpResponse<byte[]> get(
+		final HttpRequest<?> request,
+		final String type,
+		final Supplier<E> lookup,
+		final ToLongFunction<E> idOf,
+		final Function<E, D> toDto,
+		final Class<D> dtoType
+	)
+	{
+		// read before the lookup, an entity replaced by a concurrent clear is cached under the outdated generation
+		final long generation = this.generation;
+		final E entity = lookup.get();
+		if (entity == null)
+		{
+			return HttpResponse.notFound();
+		}
+
+		final boolean bson = request.accept().contains(BSON);
+		final Key key = new Key(generation, type, idOf.applyAsLong(entity), bson);
+		byte[] bytes = this.cache == null ? null : this.cache.getIfPresent(key);
+		if (bytes == null)
+		{
+			bytes = this.encode(bson, toDto.apply(entity), dtoType);
+			if (this.cache != null)
+			{
+				this.cache.put(key, bytes);
+			}
+		}
+		return HttpResponse.ok(bytes).contentType(bson ? BSON : MediaType.APPLICATION_JSON_TYPE);
+	}
+
+	private <D> byte[] encode(final boolean bson, final D dto, final Class<D> dtoType)
+	{
+		try
+		{
+			final Argument<D> argument = Argument.of(dtoType);
+			return bson ? this.bson.writeValueAsBytes(argument, dto) : this.json.writeValueAsBytes(argument, dto);
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Has to run within the write lock of the clear, otherwise entries cached before it stay readable in between.
+	 */
+	public synchronized void invalidateAll()
+	{
+		this.generation++;
+		if (this.cache != null)
+		{
+			this.cache.invalidateAll();
+		}
+	}
+}
@@ -1,12 +1,14 @@
 package one.microstream.bsr.controller;
 
 import java.util.List;
-import java.util.Optional;
 
 import io.micrometer.observation.annotation.Observed;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Error;
@@ -16,25 +18,39 @@ import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.Put;
 import io.micronaut.http.annotation.QueryValue;
 import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import one.microstream.bsr.domain.Publisher;
+import one.microstream.bsr.dto.ImportSummaryDto;
 import one.microstream.bsr.dto.PublisherDto;
 import one.microstream.bsr.exception.IndexAlreadyExistsException;
 import one.microstream.bsr.repository.PublisherRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Observed
 @Controller("/publisher")
+@ExecuteOn("publisher-controller")
 public class PublisherController
 {
 	private final PublisherRepository publishers;
+	private final Validator validator;
+	private final EncodedResponseCache responses;
 
-	public PublisherController(final PublisherRepository publishers)
+	public PublisherController(
+		final PublisherRepository publishers,
+		final Validator validator,
+		final EncodedResponseCache responses
+	)
 	{
 		this.publishers = publishers;
+		this.validator = validator;
+		this.responses = responses;
 	}
 
 	@Error(exception = IndexAlreadyExistsException.class, status = HttpStatus.BAD_REQUEST)
@@ -50,14 +66,23 @@ public class PublisherController
 	}
 
 	@Get("/search")
-	public List<PublisherDto> searchPublishers(
+	public HttpResponse<List<PublisherDto>> searchPublishers(
 		@QueryValue("company") @NonNull @NotBlank final String company,
 		@QueryValue("page") @Nullable @PositiveOrZero final Integer page,
-		@QueryValue("pageSize") @Nullable @PositiveOrZero final Integer pageSize
+		@QueryValue("pageSize") @Nullable @PositiveOrZero final Integer pageSize,
+		@QueryValue("cursor") @Nullable final String cursor
 	)
 	{
 		final List<Publisher> searchedPublishers;
-		if (pageSize == null && page == null)
+		if (cursor != null && pageSize == null)
+		{
+			searchedPublishers = this.publishers.searchPublishersByCompanyAfter(company, SearchCursor.decode(cursor));
+		}
+		else if (cursor != null)
+		{
+			searchedPublishers = this.publishers.searchPublishersByCompanyAfter(company, SearchCursor.decode(cursor), pageSize);
+		}
+		else if (pageSize == null && page == null)
 		{
 			searchedPublishers = this.publishers.searchPublishersByCompany(company);
 		}
@@ -69,19 +94,61 @@ public class PublisherController
 		{
 			searchedPublishers = this.publishers.searchPublishersByCompany(company, page, pageSize);
 		}
-		return searchedPublishers.stream().map(PublisherDto::new).toList();
+		return SearchCursor.page(
+			searchedPublishers,
+			pageSize,
+			PublisherRepository.PAGE_SIZE_LIMIT,
+			PublisherDto::new,
+			Publisher::getId
+		);
+	}
+
+	@Get(value = "/search/stream", produces = MediaType.APPLICATION_JSON_STREAM)
+	public Flux<PublisherDto> searchPublishersStream(@QueryValue("company") @NonNull @NotBlank final String company)
+	{
+		return ResultStream.of(
+			afterId -> this.publishers.searchPublishersByCompanyAfter(company, afterId),
+			Publisher::getId,
+			PublisherDto::new
+		);
 	}
 
-	@Get("/{email}")
-	public PublisherDto getPublisherByEmail(@NonNull @NotBlank @PathVariable final String email)
+	@Get(value = "/export", produces = MediaType.APPLICATION_JSON_STREAM)
+	public Flux<PublisherDto> exportPublishers()
 	{
-		return Optional.ofNullable(this.publishers.getPublisherByEmail(email)).map(PublisherDto::new).orElse(null);
+		return ResultStream.of(this.publishers::listPublishersAfter, Publisher::getId, PublisherDto::new);
 	}
 
-	@Get("/id/{id}")
-	public PublisherDto getPublisherById(@NonNull @PathVariable @Positive final Long id)
+	@Get(value = "/{email}", produces = {MediaType.APPLICATION_JSON, EncodedResponseCache.APPLICATION_BSON})
+	public HttpResponse<byte[]> getPublisherByEmail(
+		final HttpRequest<?> request,
+		@NonNull @NotBlank @PathVariable final String email
+	)
+	{
+		return this.responses.get(
+			request,
+			"publisher",
+			() -> this.publishers.getPublisherByEmail(email),
+			Publisher::getId,
+			PublisherDto::new,
+			PublisherDto.class
+		);
+	}
+
+	@Get(value = "/id/{id}", produces = {MediaType.APPLICATION_JSON, EncodedResponseCache.APPLICATION_BSON})
+	public HttpResponse<byte[]> getPublisherById(
+		final HttpRequest<?> request,
+		@NonNull @PathVariable @Positive final Long id
+	)
 	{
-		return Optional.ofNullable(this.publishers.getPublisherById(id)).map(PublisherDto::new).orElse(null);
+		return this.responses.get(
+			request,
+			"publisher",
+			() -> this.publishers.getPublisherById(id),
+			Publisher::getId,
+			PublisherDto::new,
+			PublisherDto.class
+		);
 	}
 
 	@Put
@@ -103,9 +170,15 @@ public class PublisherController
 		}
 	}
 
+	@Post(value = "/import", consumes = MediaType.APPLICATION_JSON_STREAM)
+	public Mono<ImportSummaryDto> importPublishers(@Body @NonNull final Flux<PublisherDto> dtos)
+	{
+		return BulkImport.of(dtos, this.validator, Publisher::new, this.publishers::importPublishers);
+	}
+
 	@Post("/clear")
 	public void clearPublishers()
 	{
-		this.publishers.clearPublishers();
+		this.publishers.clearPublishers(this.responses::invalidateAll);
 	}
 }
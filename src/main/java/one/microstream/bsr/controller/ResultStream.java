@@ -0,0 +1,45 @@
+package one.microstream.bsr.controller;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Streams a result set page by page. Every page is fetched with its own short read lock only when the subscriber
+ * demands more elements, so the lock is never held while the response is written to the network.
+ */
+final class ResultStream
+{
+	private ResultStream()
+	{
+	}
+
+	static <E, D> Flux<D> of(
+		final LongFunction<List<E>> pageAfter,
+		final ToLongFunction<E> idOf,
+		final Function<E, D> toDto
+	)
+	{
+		return Flux.<List<E>, Long>generate(
+			() -> 0L,
+			(afterId, sink) ->
+			{
+				final List<E> page = pageAfter.apply(afterId);
+				if (page.isEmpty())
+				{
+					sink.complete();
+					return afterId;
+				}
+				sink.next(page);
+				return idOf.applyAsLong(page.getLast());
+			}
+		)
+			// a prefetch of one keeps at most the next page in memory
+			.concatMapIterable(page -> page.stream().map(toDto).toList(), 1)
+			.subscribeOn(Schedulers.boundedElastic());
+	}
+}
@@ -0,0 +1,74 @@
+package one.microstream.bsr.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+/**
+ * Opaque continuation token of the search endpoints. It wraps the id of the last returned entity, the next page is
+ * requested by passing it back as the <code>cursor</code> query value.
+ */
+final class SearchCursor
+{
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private SearchCursor()
+	{
+	}
+
+	static String encode(final long lastId)
+	{
+		return Base64.getUrlEncoder()
+			.withoutPadding()
+			.encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	static long decode(final String cursor) throws HttpStatusException
+	{
+		try
+		{
+			final long lastId = Long.parseLong(
+				new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII)
+			);
+			if (lastId < 0)
+			{
+				throw new NumberFormatException();
+			}
+			return lastId;
+		}
+		catch (final IllegalArgumentException e)
+		{
+			throw new HttpStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor " + cursor);
+		}
+	}
+
+	/**
+	 * Responds with a page of a search, only a full page carries the cursor of the next one.
+	 *
+	 * @param pageSize the requested page size, <code>null</code> for the limit
+	 * @param pageSizeLimit the page size limit of the repository, larger page sizes are clamped to it
+	 */
+	static <E, D> MutableHttpResponse<List<D>> page(
+		final List<E> entities,
+		final Integer pageSize,
+		final int pageSizeLimit,
+		final Function<E, D> toDto,
+		final ToLongFunction<E> idOf
+	)
+	{
+		final int limit = pageSize == null ? pageSizeLimit : Math.clamp(pageSize, 1, pageSizeLimit);
+		final MutableHttpResponse<List<D>> response = HttpResponse.ok(entities.stream().map(toDto).toList());
+		if (!entities.isEmpty() && entities.size() == limit)
+		{
+			response.header(NEXT_CURSOR_HEADER, encode(idOf.applyAsLong(entities.getLast())));
+		}
+		return response;
+	}
+}
@@ -3,6 +3,7 @@ package one.microstream.bsr.domain;
 import java.util.List;
 import java.util.Objects;
 
+import one.microstream.bsr.NGramIndex;
 import one.microstream.bsr.dto.AuthorDto;
 
 public class Author
@@ -13,6 +14,8 @@ public class Author
 	private String lastname;
 	private List<Address> addresses;
 
+	private transient String nameSearchKey;
+
 	public Author(
 		final long id,
 		final String email,
@@ -44,6 +47,20 @@ public class Author
 		return "%s %s".formatted(this.firstname, this.lastname);
 	}
 
+	/**
+	 * Case folded full name the searches match against, computed once per loaded instance and not persisted.
+	 */
+	public String getNameSearchKey()
+	{
+		String key = this.nameSearchKey;
+		if (key == null)
+		{
+			key = NGramIndex.normalize(this.getFullName());
+			this.nameSearchKey = key;
+		}
+		return key;
+	}
+
 	public long getId()
 	{
 		return this.id;
@@ -72,6 +89,7 @@ public class Author
 	public void setFirstname(final String firstname)
 	{
 		this.firstname = firstname;
+		this.nameSearchKey = null;
 	}
 
 	public String getLastname()
@@ -82,6 +100,7 @@ public class Author
 	public void setLastname(final String lastname)
 	{
 		this.lastname = lastname;
+		this.nameSearchKey = null;
 	}
 
 	public List<Address> getAddresses()
@@ -3,6 +3,7 @@ package one.microstream.bsr.domain;
 import java.time.LocalDate;
 import java.util.Objects;
 
+import one.microstream.bsr.NGramIndex;
 import one.microstream.bsr.dto.BookReferenceDto;
 
 public class Book
@@ -19,6 +20,8 @@ public class Book
 	private Author author;
 	private Publisher publisher;
 
+	private transient String titleSearchKey;
+
 	public Book(
 		final long id,
 		final String isbn,
@@ -75,6 +78,21 @@ public class Book
 	public void setTitle(final String title)
 	{
 		this.title = title;
+		this.titleSearchKey = null;
+	}
+
+	/**
+	 * Case folded title the searches match against, computed once per loaded instance and not persisted.
+	 */
+	public String getTitleSearchKey()
+	{
+		String key = this.titleSearchKey;
+		if (key == null)
+		{
+			key = NGramIndex.normalize(this.title);
+			this.titleSearchKey = key;
+		}
+		return key;
 	}
 
 	public LocalDate getPublicationDate()
@@ -3,6 +3,7 @@ package one.microstream.bsr.domain;
 import java.util.List;
 import java.util.Objects;
 
+import one.microstream.bsr.NGramIndex;
 import one.microstream.bsr.dto.PublisherDto;
 
 public class Publisher
@@ -12,6 +13,8 @@ public class Publisher
 	private String company;
 	private List<Address> addresses;
 
+	private transient String companySearchKey;
+
 	public Publisher(final long id, final String email, final String company, final List<Address> addresses)
 	{
 		this.id = id;
@@ -58,6 +61,21 @@ public class Publisher
 	public void setCompany(final String company)
 	{
 		this.company = company;
+		this.companySearchKey = null;
+	}
+
+	/**
+	 * Case folded company the searches match against, computed once per loaded instance and not persisted.
+	 */
+	public String getCompanySearchKey()
+	{
+		String key = this.companySearchKey;
+		if (key == null)
+		{
+			key = NGramIndex.normalize(this.company);
+			this.companySearchKey = key;
+		}
+		return key;
 	}
 
 	public List<Address> getAddresses()
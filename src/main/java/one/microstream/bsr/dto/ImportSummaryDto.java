@@ -0,0 +1,12 @@
+package one.microstream.bsr.dto;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record ImportSummaryDto(long accepted, long rejected)
+{
+	public ImportSummaryDto add(final ImportSummaryDto other)
+	{
+		return new ImportSummaryDto(this.accepted + other.accepted, this.rejected + other.rejected);
+	}
+}
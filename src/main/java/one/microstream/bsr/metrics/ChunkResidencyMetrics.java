@@ -0,0 +1,45 @@
+package one.microstream.bsr.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+import one.microstream.bsr.ChunkResidencyManager;
+
+@Singleton
+public class ChunkResidencyMetrics implements MeterBinder
+{
+	private final ChunkResidencyManager residency;
+
+	public ChunkResidencyMetrics(final ChunkResidencyManager residency)
+	{
+		this.residency = residency;
+	}
+
+	@Override
+	public void bindTo(final MeterRegistry registry)
+	{
+		FunctionCounter.builder("bsr.chunks.loads", this.residency, ChunkResidencyManager::getLoads)
+			.description("Chunks loaded from the storage")
+			.register(registry);
+		FunctionTimer.builder(
+				"bsr.chunks.load",
+				this.residency,
+				ChunkResidencyManager::getLoads,
+				ChunkResidencyManager::getLoadNanos,
+				TimeUnit.NANOSECONDS
+			)
+			.description("Time spent loading chunks from the storage")
+			.register(registry);
+		FunctionCounter.builder("bsr.chunks.evictions", this.residency, ChunkResidencyManager::getEvictions)
+			.description("Chunks unloaded by the residency policy")
+			.register(registry);
+		Gauge.builder("bsr.chunks.resident", this.residency, ChunkResidencyManager::getResidentChunks)
+			.description("Loaded chunks tracked by the residency policy")
+			.register(registry);
+	}
+}
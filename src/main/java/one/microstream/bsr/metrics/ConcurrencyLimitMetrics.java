@@ -0,0 +1,45 @@
+package one.microstream.bsr.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import one.microstream.bsr.controller.AimdLimiter;
+import one.microstream.bsr.controller.ConcurrencyLimitFilter;
+
+@Singleton
+@Requires(beans = ConcurrencyLimitFilter.class)
+public class ConcurrencyLimitMetrics implements MeterBinder
+{
+	private final ConcurrencyLimitFilter filter;
+
+	public ConcurrencyLimitMetrics(final ConcurrencyLimitFilter filter)
+	{
+		this.filter = filter;
+	}
+
+	@Override
+	public void bindTo(final MeterRegistry registry)
+	{
+		for (final AimdLimiter limiter : this.filter.getLimiters())
+		{
+			Gauge.builder("bsr.concurrency.limit", limiter, AimdLimiter::getLimit)
+				.description("Concurrent requests admitted by the adaptive limit")
+				.tag("controller", limiter.getController())
+				.tag("kind", limiter.getKind())
+				.register(registry);
+			Gauge.builder("bsr.concurrency.in-flight", limiter, AimdLimiter::getInFlight)
+				.description("Requests currently admitted")
+				.tag("controller", limiter.getController())
+				.tag("kind", limiter.getKind())
+				.register(registry);
+			FunctionCounter.builder("bsr.concurrency.rejected", limiter, AimdLimiter::getRejected)
+				.description("Requests rejected over the limit")
+				.tag("controller", limiter.getController())
+				.tag("kind", limiter.getKind())
+				.register(registry);
+		}
+	}
+}
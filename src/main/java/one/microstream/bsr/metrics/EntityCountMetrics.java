@@ -0,0 +1,45 @@
+package one.microstream.bsr.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+import one.microstream.bsr.repository.AuthorRepository;
+import one.microstream.bsr.repository.BookRepository;
+import one.microstream.bsr.repository.PublisherRepository;
+
+@Singleton
+public class EntityCountMetrics implements MeterBinder
+{
+	private final BookRepository books;
+	private final AuthorRepository authors;
+	private final PublisherRepository publishers;
+
+	public EntityCountMetrics(
+		final BookRepository books,
+		final AuthorRepository authors,
+		final PublisherRepository publishers
+	)
+	{
+		this.books = books;
+		this.authors = authors;
+		this.publishers = publishers;
+	}
+
+	@Override
+	public void bindTo(final MeterRegistry registry)
+	{
+		Gauge.builder("bsr.entities", this.books, BookRepository::countBooks)
+			.description("Stored entities")
+			.tag("type", "book")
+			.register(registry);
+		Gauge.builder("bsr.entities", this.authors, AuthorRepository::countAuthors)
+			.description("Stored entities")
+			.tag("type", "author")
+			.register(registry);
+		Gauge.builder("bsr.entities", this.publishers, PublisherRepository::countPublishers)
+			.description("Stored entities")
+			.tag("type", "publisher")
+			.register(registry);
+	}
+}
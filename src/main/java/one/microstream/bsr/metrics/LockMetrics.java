@@ -0,0 +1,108 @@
+package one.microstream.bsr.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.serializer.concurrency.LockedExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Singleton;
+
+/**
+ * Decorates the {@link LockedExecutor} of a repository to record how long its operations wait for the lock
+ * (<code>bsr.lock.wait</code>) and how long they hold it (<code>bsr.lock.hold</code>), tagged by repository and
+ * lock mode. The hold time of writes includes their commit.
+ */
+@Singleton
+public class LockMetrics
+{
+	private final MeterRegistry registry;
+
+	public LockMetrics(final MeterRegistry registry)
+	{
+		this.registry = registry;
+	}
+
+	public LockedExecutor instrument(final String repository, final LockedExecutor executor)
+	{
+		return new InstrumentedExecutor(
+			executor,
+			new Timing(this.registry, repository, "read"),
+			new Timing(this.registry, repository, "write")
+		);
+	}
+
+	private record Timing(Timer lockWait, Timer lockHold)
+	{
+		Timing(final MeterRegistry registry, final String repository, final String mode)
+		{
+			this(
+				Timer.builder("bsr.lock.wait")
+					.description("Time spent waiting for the repository lock")
+					.tag("repository", repository)
+					.tag("mode", mode)
+					.register(registry),
+				Timer.builder("bsr.lock.hold")
+					.description("Time spent holding the repository lock")
+					.tag("repository", repository)
+					.tag("mode", mode)
+					.register(registry)
+			);
+		}
+
+		<T> LockedExecutor.ValueOperation<T> wrap(final LockedExecutor.ValueOperation<T> operation)
+		{
+			final long requested = System.nanoTime();
+			return () ->
+			{
+				final long acquired = System.nanoTime();
+				this.lockWait.record(acquired - requested, TimeUnit.NANOSECONDS);
+				try
+				{
+					return operation.execute();
+				}
+				finally
+				{
+					this.lockHold.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+				}
+			};
+		}
+
+		LockedExecutor.VoidOperation wrap(final LockedExecutor.VoidOperation operation)
+		{
+			final LockedExecutor.ValueOperation<Void> wrapped = this.wrap(() ->
+			{
+				operation.execute();
+				return null;
+			});
+			return wrapped::execute;
+		}
+	}
+
+	private record InstrumentedExecutor(LockedExecutor delegate, Timing reads, Timing writes) implements LockedExecutor
+	{
+		@Override
+		public void read(final VoidOperation operation)
+		{
+			this.delegate.read(this.reads.wrap(operation));
+		}
+
+		@Override
+		public <T> T read(final ValueOperation<T> operation)
+		{
+			return this.delegate.read(this.reads.wrap(operation));
+		}
+
+		@Override
+		public void write(final VoidOperation operation)
+		{
+			this.delegate.write(this.writes.wrap(operation));
+		}
+
+		@Override
+		public <T> T write(final ValueOperation<T> operation)
+		{
+			return this.delegate.write(this.writes.wrap(operation));
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package one.microstream.bsr.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+import one.microstream.bsr.repository.AuthorRepository;
+import one.microstream.bsr.repository.BookRepository;
+import one.microstream.bsr.repository.PublisherRepository;
+
+/**
+ * Exports the hits, misses, evictions and weight of the search caches as the <code>cache.*</code> meters, tagged with
+ * <code>cache=book.search</code>, <code>author.search</code> and <code>publisher.search</code>.
+ */
+@Singleton
+public class SearchCacheMetrics implements MeterBinder
+{
+	private final BookRepository books;
+	private final AuthorRepository authors;
+	private final PublisherRepository publishers;
+
+	public SearchCacheMetrics(
+		final BookRepository books,
+		final AuthorRepository authors,
+		final PublisherRepository publishers
+	)
+	{
+		this.books = books;
+		this.authors = authors;
+		this.publishers = publishers;
+	}
+
+	@Override
+	public void bindTo(final MeterRegistry registry)
+	{
+		this.books.bindSearchCacheMetrics(registry);
+		this.authors.bindSearchCacheMetrics(registry);
+		this.publishers.bindSearchCacheMetrics(registry);
+	}
+}
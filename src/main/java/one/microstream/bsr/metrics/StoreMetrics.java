@@ -0,0 +1,62 @@
+package one.microstream.bsr.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.serializer.persistence.types.Storer;
+import org.eclipse.store.storage.types.StorageManager;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+/**
+ * Commits storers and records how long every commit took and how many objects, and optionally how many bytes, it
+ * wrote. Measuring the bytes asks every storage channel for its file statistics before and after the commit, so it
+ * is meant for verifying the write amplification of an operation and is disabled by default.
+ */
+@Singleton
+public class StoreMetrics
+{
+	private final MeterRegistry registry;
+	private final boolean measureBytes;
+
+	public StoreMetrics(
+		final MeterRegistry registry,
+		@Value("${bsr.store-metrics.measure-bytes:false}") final boolean measureBytes
+	)
+	{
+		this.registry = registry;
+		this.measureBytes = measureBytes;
+	}
+
+	public void commit(final String operation, final Storer storer, final StorageManager storage)
+	{
+		final long objects = storer.size();
+		final long dataLengthBefore = this.measureBytes ? storage.createStorageStatistics().totalDataLength() : 0L;
+
+		final long start = System.nanoTime();
+		storer.commit();
+		Timer.builder("bsr.store.commit")
+			.description("Time spent serializing and writing a commit")
+			.tag("operation", operation)
+			.register(this.registry)
+			.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+		DistributionSummary.builder("bsr.store.objects")
+			.description("Objects written per commit")
+			.tag("operation", operation)
+			.register(this.registry)
+			.record(objects);
+		if (this.measureBytes)
+		{
+			DistributionSummary.builder("bsr.store.bytes")
+				.description("Bytes written per commit")
+				.baseUnit("bytes")
+				.tag("operation", operation)
+				.register(this.registry)
+				.record(storage.createStorageStatistics().totalDataLength() - dataLengthBefore);
+		}
+	}
+}
@@ -1,40 +1,186 @@
 package one.microstream.bsr.repository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
 import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterStorageManager;
 import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.eclipse.serializer.persistence.types.Storer;
 import org.eclipse.store.storage.types.StorageManager;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import one.microstream.bsr.ChunkResidencyManager;
+import one.microstream.bsr.ChunkedList;
 import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.NGramIndex;
+import one.microstream.bsr.UniqueIndex;
+import one.microstream.bsr.config.ChunkSizeConfiguration;
+import one.microstream.bsr.config.GroupCommitConfiguration;
+import one.microstream.bsr.config.OptimisticReadConfiguration;
+import one.microstream.bsr.config.SearchCacheConfiguration;
 import one.microstream.bsr.domain.Author;
 import one.microstream.bsr.exception.IndexAlreadyExistsException;
+import one.microstream.bsr.metrics.LockMetrics;
+import one.microstream.bsr.metrics.StoreMetrics;
 
 @Singleton
 public class AuthorRepository extends ClusterLockScope
 {
-	private static final int PAGE_SIZE_LIMIT = 250;
+	public static final int PAGE_SIZE_LIMIT = 250;
 
-	private final List<Author> authors;
+	private final ChunkedList<Author> authors;
+	private final UniqueIndex<String> emailIndex;
+	private final NGramIndex nameIndex;
 	private final StorageManager storage;
+	private final StoreMetrics storeMetrics;
+	private final GroupCommitter<Author> groupCommitter;
+	private final VersionStamp stamp;
+	private final SearchCache<Author> searchCache;
 
-	public AuthorRepository(final ClusterStorageManager<DataRoot> storageManager, final LockedExecutor executor)
+	@Inject
+	public AuthorRepository(
+		final ClusterStorageManager<DataRoot> storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
 	{
-		super(executor);
+		this(
+			storageManager.root().get(),
+			storageManager,
+			executor,
+			residency,
+			chunkSizes,
+			storeMetrics,
+			lockMetrics,
+			groupCommit,
+			optimisticReads,
+			searchCache
+		);
+	}
+
+	/**
+	 * Creates the repository on a plain, not clustered storage, used by the benchmarks
+	 * through <code>BenchmarkRepositories</code>.
+	 */
+	AuthorRepository(
+		final DataRoot root,
+		final StorageManager storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
+	{
+		super(lockMetrics.instrument("author", executor));
+		this.stamp = new VersionStamp(optimisticReads.enabled());
+		this.searchCache = new SearchCache<>(searchCache, this.stamp);
 		this.storage = storageManager;
-		this.authors = storageManager.root().get().getAuthors();
+		this.storeMetrics = storeMetrics;
+		this.authors = this.write(() -> this.ensureChunkedAuthors(root, chunkSizes.authors()));
+		this.authors.setResidencyManager(residency);
+		// optimistic reads are only enabled on nodes that are the single writer of their storage
+		this.authors.setSingleWriter(optimisticReads.enabled());
+		// loads the tail chunk once to publish the size, counting never loads a chunk afterwards
+		this.authors.snapshot();
+		this.emailIndex = this.write(() -> this.ensureEmailIndex(root));
+		this.nameIndex = this.write(() -> this.ensureNameIndex(root));
+		this.nameIndex.setSingleWriter(optimisticReads.enabled());
+		this.groupCommitter = groupCommit.enabled()
+			? new GroupCommitter<>(
+				"author-group-commit",
+				groupCommit.maxBatchSize(),
+				groupCommit.maxLinger(),
+				this::insertBatch
+			)
+			: null;
+	}
+
+	@PreDestroy
+	void close()
+	{
+		if (this.groupCommitter != null)
+		{
+			this.groupCommitter.close();
+		}
+	}
+
+	private ChunkedList<Author> ensureChunkedAuthors(final DataRoot root, final int chunkSize)
+	{
+		// storages created before the authors were chunked keep them in a plain list, move them over once
+		if (root.getAuthors() == null)
+		{
+			final ChunkedList<Author> chunked = new ChunkedList<>(chunkSize);
+			chunked.addAll(root.getLegacyAuthors(), this.storage);
+			root.setAuthors(chunked);
+			root.clearLegacyAuthors();
+			this.storage.store(root);
+		}
+		else if (root.getAuthors().size() == 0 && root.getAuthors().getChunkSize() != chunkSize)
+		{
+			root.setAuthors(new ChunkedList<>(chunkSize));
+			this.storage.store(root);
+		}
+		return root.getAuthors();
+	}
+
+	private UniqueIndex<String> ensureEmailIndex(final DataRoot root)
+	{
+		return Indexes.ensureIndex(root, this.storage, root::getAuthorEmailIndex, root::setAuthorEmailIndex, () ->
+		{
+			final var index = new UniqueIndex<String>();
+			index.putAll(
+				this.authors.stream().collect(Collectors.toMap(Author::getEmail, Author::getId)),
+				this.storage
+			);
+			return index;
+		});
+	}
+
+	private NGramIndex ensureNameIndex(final DataRoot root)
+	{
+		return Indexes.ensureIndex(root, this.storage, root::getAuthorNameIndex, root::setAuthorNameIndex, () ->
+		{
+			final var index = new NGramIndex();
+			index.addAll(this.authors.stream().toList(), Author::getId, Author::getNameSearchKey, this.storage);
+			return index;
+		});
 	}
 
 	public Author getAuthorByEmail(final String email)
 	{
-		return this.read(() -> this.authors.stream().filter(a -> a.getEmail().equals(email)).findAny().orElse(null));
+		return this.optimisticRead(() ->
+		{
+			final Long id = this.emailIndex.get(email);
+			return id == null ? null : this.authors.get((int)(id - 1));
+		});
 	}
 
 	public Author getAuthorById(final long id)
 	{
-		return this.read(() -> this.authors.stream().filter(a -> a.getId() == id).findAny().orElse(null));
+		// ids are assigned densely starting at 1, so they double as list positions
+		return this.optimisticRead(
+			() -> id < 1 || id > this.authors.size() ? null : this.authors.get((int)(id - 1))
+		);
 	}
 
 	public List<Author> searchAuthorsByName(final String name)
@@ -49,76 +195,255 @@ public class AuthorRepository extends ClusterLockScope
 
 	public List<Author> searchAuthorsByName(final String _name, final int page, final int pageSize)
 	{
-		final String name = _name.toLowerCase(); // java lambdas man...
+		final String name = NGramIndex.normalize(_name); // java lambdas man...
 
-		final int offset = (page - 1) * pageSize;
-		final int limit = Math.max(pageSize, PAGE_SIZE_LIMIT);
+		final int limit = clampPageSize(pageSize);
+		final long offset = (Math.max(page, 1) - 1L) * limit;
 
-		return this.read(
-			() -> this.authors.stream()
-				.filter(a -> a.getFullName().toLowerCase().contains(name))
-				.skip(offset)
-				.limit(limit)
-				.toList()
+		return this.searchCache.get(
+			name,
+			0L,
+			offset,
+			limit,
+			() -> this.unlockedRead(() -> this.searchStream(name, 0L).skip(offset).limit(limit).toList())
 		);
 	}
 
+	public List<Author> searchAuthorsByNameAfter(final String name, final long afterId)
+	{
+		return this.searchAuthorsByNameAfter(name, afterId, PAGE_SIZE_LIMIT);
+	}
+
+	/**
+	 * Keyset variant of the paged search, it resumes right after the entity with the id <code>afterId</code> instead
+	 * of skipping all matches of the previous pages.
+	 */
+	public List<Author> searchAuthorsByNameAfter(final String _name, final long afterId, final int pageSize)
+	{
+		final String name = NGramIndex.normalize(_name);
+		final int limit = clampPageSize(pageSize);
+
+		return this.searchCache.get(
+			name,
+			afterId,
+			0L,
+			limit,
+			() -> this.unlockedRead(() -> this.searchStream(name, afterId).limit(limit).toList())
+		);
+	}
+
+	public List<Author> listAuthorsAfter(final long afterId)
+	{
+		return this.listAuthorsAfter(afterId, PAGE_SIZE_LIMIT);
+	}
+
+	public List<Author> listAuthorsAfter(final long afterId, final int pageSize)
+	{
+		final int limit = clampPageSize(pageSize);
+		return this.unlockedRead(() -> this.authors.stream(afterId).limit(limit).toList());
+	}
+
+	private Stream<Author> searchStream(final String name, final long afterId)
+	{
+		// ids indexed after the snapshot was taken are not in it yet, candidates are ascending
+		final ChunkedList<Author>.Snapshot snapshot = this.authors.snapshot();
+		final LongStream candidates = this.nameIndex.candidates(name, afterId);
+		final Stream<Author> scanned = candidates == null
+			? snapshot.stream(afterId)
+			: candidates.takeWhile(id -> id <= snapshot.size()).mapToObj(id -> snapshot.get((int)(id - 1)));
+		return scanned.filter(a -> a.getNameSearchKey().contains(name));
+	}
+
+	private static int clampPageSize(final int pageSize)
+	{
+		return Math.clamp(pageSize, 1, PAGE_SIZE_LIMIT);
+	}
+
 	public void insert(final Author author) throws IndexAlreadyExistsException
 	{
+		if (this.groupCommitter != null)
+		{
+			this.groupCommitter.submit(author);
+			return;
+		}
+
 		this.write(() ->
 		{
 			this.ensureUniqueIndex(author);
-			author.setId(this.authors.size() + 1L);
-			this.authors.add(author);
-			this.storage.store(this.authors);
+
+			final Storer storer = this.storage.createLazyStorer();
+			this.stamp.mutate(() ->
+			{
+				author.setId(this.authors.size() + 1L);
+				this.authors.add(author, storer);
+				this.emailIndex.put(author.getEmail(), author.getId(), storer);
+				this.nameIndex.add(author.getId(), author.getNameSearchKey(), storer);
+			});
+			this.storeMetrics.commit("author.insert", storer, this.storage);
 		});
 	}
 
 	public void insertAll(final List<Author> moreAuthors) throws IndexAlreadyExistsException
 	{
+		ensureUniqueInBatch(moreAuthors);
+
 		this.write(() ->
 		{
 			for (final Author author : moreAuthors)
 			{
 				this.ensureUniqueIndex(author);
+			}
 
-				if (moreAuthors.stream().filter(b -> b.getEmail().equals(author.getEmail())).count() > 1)
+			this.append(moreAuthors, "author.insertAll");
+		});
+
+	}
+
+	/**
+	 * Inserts the authors whose email is not taken yet and skips the others, instead of rejecting the whole list.
+	 *
+	 * @return the number of inserted authors
+	 */
+	public int importAuthors(final List<Author> moreAuthors)
+	{
+		return this.write(() ->
+		{
+			final List<Author> accepted = new ArrayList<>(moreAuthors.size());
+			final Set<String> emails = HashSet.newHashSet(moreAuthors.size());
+			for (final Author author : moreAuthors)
+			{
+				if (!this.emailIndex.contains(author.getEmail()) && emails.add(author.getEmail()))
 				{
-					throw new IndexAlreadyExistsException("Authors with duplicate email found in batch save.");
+					accepted.add(author);
 				}
 			}
-
-			final long nextId = this.authors.size() + 1L;
-			for (int i = 0; i < moreAuthors.size(); i++)
+			if (!accepted.isEmpty())
 			{
-				moreAuthors.get(i).setId(nextId + i);
+				this.append(accepted, "author.import");
 			}
+			return accepted.size();
+		});
+	}
 
-			this.authors.addAll(moreAuthors);
-			this.storage.store(this.authors);
+	private void insertBatch(final List<GroupCommitter.Pending<Author>> batch)
+	{
+		this.write(() ->
+		{
+			final List<Author> accepted = new ArrayList<>(batch.size());
+			final Set<String> emails = HashSet.newHashSet(batch.size());
+			for (final var pending : batch)
+			{
+				final Author author = pending.item();
+				if (this.emailIndex.contains(author.getEmail()) || !emails.add(author.getEmail()))
+				{
+					pending.reject(
+						new IndexAlreadyExistsException(
+							"Author with email %s already exists.".formatted(author.getEmail())
+						)
+					);
+				}
+				else
+				{
+					accepted.add(author);
+				}
+			}
+			if (!accepted.isEmpty())
+			{
+				this.append(accepted, "author.groupInsert");
+			}
 		});
+	}
 
+	private void append(final List<Author> moreAuthors, final String operation)
+	{
+		final Storer storer = this.storage.createLazyStorer();
+		this.stamp.mutate(() -> this.addAll(moreAuthors, storer));
+		this.storeMetrics.commit(operation, storer, this.storage);
+	}
+
+	private void addAll(final List<Author> moreAuthors, final Storer storer)
+	{
+		final long nextId = this.authors.size() + 1L;
+		for (int i = 0; i < moreAuthors.size(); i++)
+		{
+			moreAuthors.get(i).setId(nextId + i);
+		}
+
+		this.authors.addAll(moreAuthors, storer);
+		this.emailIndex.putAll(
+			moreAuthors.stream().collect(Collectors.toMap(Author::getEmail, Author::getId)),
+			storer
+		);
+		this.nameIndex.addAll(moreAuthors, Author::getId, Author::getNameSearchKey, storer);
 	}
 
 	public long countAuthors()
 	{
-		return this.read(this.authors::size);
+		// the size of the snapshot, without any lock on single writer nodes, otherwise replication may change the
+		// chunk directory it is checked against
+		return this.unlockedRead(this.authors::size);
+	}
+
+	public void bindSearchCacheMetrics(final MeterRegistry registry)
+	{
+		this.searchCache.bindTo(registry, "author.search");
+	}
+
+	/**
+	 * Runs a short read without taking the read lock, see {@link VersionStamp}.
+	 */
+	private <T> T optimisticRead(final Supplier<T> read)
+	{
+		return this.stamp.read(read, () -> this.read(read::get));
 	}
 
-	public void clearAuthors()
+	/**
+	 * Runs a search or listing without taking the read lock. Those only go through a snapshot of the chunked list and
+	 * the n-gram index, which both stay consistent while a writer appends to them. Only single writer nodes skip the
+	 * lock, on all others writes still block searches and listings.
+	 */
+	private <T> T unlockedRead(final Supplier<T> read)
+	{
+		return this.stamp.unlocked(read, () -> this.read(read::get));
+	}
+
+	/**
+	 * @param onCleared runs within the write lock right after the entities have been cleared from memory, before any
+	 *        reader can look up the cleared state
+	 */
+	public void clearAuthors(final Runnable onCleared)
 	{
 		this.write(() ->
 		{
-			this.authors.clear();
-			this.storage.store(this.authors);
+			final Storer storer = this.storage.createLazyStorer();
+			this.stamp.mutate(() ->
+			{
+				this.authors.clear(storer);
+				this.emailIndex.clear(storer);
+				this.nameIndex.clear(storer);
+				onCleared.run();
+			});
+			this.storeMetrics.commit("author.clear", storer, this.storage);
 		});
 	}
 
 	private void ensureUniqueIndex(final Author author) throws IndexAlreadyExistsException
 	{
-		if (this.authors.stream().anyMatch(b -> b.getEmail().equals(author.getEmail())))
+		if (this.emailIndex.contains(author.getEmail()))
 		{
 			throw new IndexAlreadyExistsException("Author with email %s already exists.".formatted(author.getEmail()));
 		}
 	}
+
+	private static void ensureUniqueInBatch(final List<Author> moreAuthors) throws IndexAlreadyExistsException
+	{
+		final Set<String> emails = HashSet.newHashSet(moreAuthors.size());
+		for (final Author author : moreAuthors)
+		{
+			if (!emails.add(author.getEmail()))
+			{
+				throw new IndexAlreadyExistsException("Authors with duplicate email found in batch save.");
+			}
+		}
+	}
 }
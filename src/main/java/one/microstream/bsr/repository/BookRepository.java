@@ -1,35 +1,203 @@
 package one.microstream.bsr.repository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
 import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterStorageManager;
 import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.eclipse.serializer.persistence.types.Storer;
 import org.eclipse.store.storage.types.StorageManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import one.microstream.bsr.ChunkResidencyManager;
 import one.microstream.bsr.ChunkedList;
 import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.NGramIndex;
+import one.microstream.bsr.UniqueIndex;
+import one.microstream.bsr.config.ChunkSizeConfiguration;
+import one.microstream.bsr.config.GroupCommitConfiguration;
+import one.microstream.bsr.config.OptimisticReadConfiguration;
+import one.microstream.bsr.config.SearchCacheConfiguration;
 import one.microstream.bsr.domain.Book;
 import one.microstream.bsr.exception.IndexAlreadyExistsException;
+import one.microstream.bsr.metrics.LockMetrics;
+import one.microstream.bsr.metrics.StoreMetrics;
 
 @Singleton
 public class BookRepository extends ClusterLockScope
 {
-	private static final int PAGE_SIZE_LIMIT = 250;
-	private final ChunkedList<Book> books;
+	public static final int PAGE_SIZE_LIMIT = 250;
+	private static final long PARALLEL_SCAN_THRESHOLD = 100_000L;
+	private static final long RECHUNK_BATCH_SIZE = 10_000L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(BookRepository.class);
+
+	private volatile ChunkedList<Book> books;
+	// counts the clears made through this repository, a re-chunking aborts if one happens while it copies
+	private volatile long clears;
+	private final UniqueIndex<String> isbnIndex;
+	private final NGramIndex titleIndex;
+	private final DataRoot root;
 	private final StorageManager storage;
+	private final ChunkResidencyManager residency;
+	private final StoreMetrics storeMetrics;
+	private final GroupCommitter<Book> groupCommitter;
+	private final VersionStamp stamp;
+	private final boolean singleWriter;
+	private final SearchCache<Book> searchCache;
 
-	public BookRepository(final ClusterStorageManager<DataRoot> storageManager, final LockedExecutor executor)
+	@Inject
+	public BookRepository(
+		final ClusterStorageManager<DataRoot> storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
 	{
-		super(executor);
+		this(
+			storageManager.root().get(),
+			storageManager,
+			executor,
+			residency,
+			chunkSizes,
+			storeMetrics,
+			lockMetrics,
+			groupCommit,
+			optimisticReads,
+			searchCache
+		);
+	}
+
+	/**
+	 * Creates the repository on a plain, not clustered storage, used by the benchmarks
+	 * through <code>BenchmarkRepositories</code>.
+	 */
+	BookRepository(
+		final DataRoot root,
+		final StorageManager storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
+	{
+		super(lockMetrics.instrument("book", executor));
+		this.stamp = new VersionStamp(optimisticReads.enabled());
+		this.singleWriter = optimisticReads.enabled();
+		this.searchCache = new SearchCache<>(searchCache, this.stamp);
 		this.storage = storageManager;
-		this.books = storageManager.root().get().getBooks();
+		this.storeMetrics = storeMetrics;
+		this.residency = residency;
+		this.root = root;
+		this.books = this.write(() -> this.ensureChunkSize(this.root, chunkSizes.books()));
+		this.books.setResidencyManager(residency);
+		// optimistic reads are only enabled on nodes that are the single writer of their storage
+		this.books.setSingleWriter(this.singleWriter);
+		// loads the tail chunk once to publish the size, counting never loads a chunk afterwards
+		this.books.snapshot();
+		this.isbnIndex = this.write(() -> this.ensureIsbnIndex(this.root));
+		this.titleIndex = this.write(() -> this.ensureTitleIndex(this.root));
+		this.titleIndex.setSingleWriter(this.singleWriter);
+		this.groupCommitter = groupCommit.enabled()
+			? new GroupCommitter<>(
+				"book-group-commit",
+				groupCommit.maxBatchSize(),
+				groupCommit.maxLinger(),
+				this::insertBatch
+			)
+			: null;
+	}
+
+	@PreDestroy
+	void close()
+	{
+		if (this.groupCommitter != null)
+		{
+			this.groupCommitter.close();
+		}
+	}
+
+	private ChunkedList<Book> ensureChunkSize(final DataRoot root, final int chunkSize)
+	{
+		if (root.getRechunkedBooks() != null)
+		{
+			LOG.info("Discarding the books of an interrupted re-chunking, POST /book/rechunk to start it again.");
+			root.setRechunkedBooks(null);
+			this.storage.store(root);
+		}
+
+		final ChunkedList<Book> stored = root.getBooks();
+		if (stored.getChunkSize() == chunkSize)
+		{
+			return stored;
+		}
+		if (stored.size() == 0)
+		{
+			root.setBooks(new ChunkedList<>(chunkSize));
+			this.storage.store(root);
+		}
+		else
+		{
+			LOG.info(
+				"Books are stored in chunks of {} instead of the configured {}, POST /book/rechunk to migrate them.",
+				stored.getChunkSize(),
+				chunkSize
+			);
+		}
+		return root.getBooks();
+	}
+
+	private UniqueIndex<String> ensureIsbnIndex(final DataRoot root)
+	{
+		return Indexes.ensureIndex(root, this.storage, root::getIsbnIndex, root::setIsbnIndex, () ->
+		{
+			final var index = new UniqueIndex<String>();
+			index.putAll(
+				this.books.stream().collect(Collectors.toMap(Book::getIsbn, Book::getId)),
+				this.storage
+			);
+			return index;
+		});
+	}
+
+	private NGramIndex ensureTitleIndex(final DataRoot root)
+	{
+		return Indexes.ensureIndex(root, this.storage, root::getBookTitleIndex, root::setBookTitleIndex, () ->
+		{
+			final var index = new NGramIndex();
+			index.addAll(this.books.stream().toList(), Book::getId, Book::getTitleSearchKey, this.storage);
+			return index;
+		});
 	}
 
 	public Book getBookByISBN(final String isbn)
 	{
-		return this.read(() -> this.books.stream().filter(b -> b.getIsbn().equals(isbn)).findAny().orElse(null));
+		return this.optimisticRead(() ->
+		{
+			final Long id = this.isbnIndex.get(isbn);
+			return id == null ? null : this.books.get((int)(id - 1));
+		});
 	}
 
 	public Book getBookById(final long id)
@@ -38,7 +206,7 @@ public class BookRepository extends ClusterLockScope
 		{
 			throw new RuntimeException("Index exceeded max int size");
 		}
-		return this.read(() -> this.books.get((int)id - 1));
+		return this.optimisticRead(() -> this.books.get((int)id - 1));
 	}
 
 	public List<Book> searchBooksByTitle(final String title)
@@ -53,75 +221,355 @@ public class BookRepository extends ClusterLockScope
 
 	public List<Book> searchBooksByTitle(final String _title, final int page, final int pageSize)
 	{
-		final String title = _title.toLowerCase(); // java lambdas man...
+		final String title = NGramIndex.normalize(_title); // java lambdas man...
 
-		final int offset = (page - 1) * pageSize;
-		final int limit = Math.max(pageSize, PAGE_SIZE_LIMIT);
+		final int limit = clampPageSize(pageSize);
+		final long offset = (Math.max(page, 1) - 1L) * limit;
 
-		return this.read(
-			() -> this.books.stream()
-				.filter(b -> b.getTitle().toLowerCase().contains(title))
-				.skip(offset)
-				.limit(limit)
-				.toList()
+		return this.searchCache.get(
+			title,
+			0L,
+			offset,
+			limit,
+			() -> this.unlockedRead(() -> this.searchStream(title, 0L).skip(offset).limit(limit).toList())
 		);
 	}
 
+	public List<Book> searchBooksByTitleAfter(final String title, final long afterId)
+	{
+		return this.searchBooksByTitleAfter(title, afterId, PAGE_SIZE_LIMIT);
+	}
+
+	/**
+	 * Keyset variant of the paged search, it resumes right after the entity with the id <code>afterId</code> instead
+	 * of skipping all matches of the previous pages.
+	 */
+	public List<Book> searchBooksByTitleAfter(final String _title, final long afterId, final int pageSize)
+	{
+		final String title = NGramIndex.normalize(_title);
+		final int limit = clampPageSize(pageSize);
+
+		return this.searchCache.get(
+			title,
+			afterId,
+			0L,
+			limit,
+			() -> this.unlockedRead(() -> this.searchStream(title, afterId).limit(limit).toList())
+		);
+	}
+
+	public List<Book> listBooksAfter(final long afterId)
+	{
+		return this.listBooksAfter(afterId, PAGE_SIZE_LIMIT);
+	}
+
+	public List<Book> listBooksAfter(final long afterId, final int pageSize)
+	{
+		final int limit = clampPageSize(pageSize);
+		return this.unlockedRead(() -> this.books.stream(afterId).limit(limit).toList());
+	}
+
+	private Stream<Book> searchStream(final String title, final long afterId)
+	{
+		// ids indexed after the snapshot was taken are not in it yet, candidates are ascending
+		final ChunkedList<Book>.Snapshot snapshot = this.books.snapshot();
+		final LongStream candidates = this.titleIndex.candidates(title, afterId);
+		final Stream<Book> scanned = candidates == null
+			? snapshot.stream(afterId)
+			: candidates.takeWhile(id -> id <= snapshot.size()).mapToObj(id -> snapshot.get((int)(id - 1)));
+		return scanned.filter(b -> b.getTitleSearchKey().contains(title));
+	}
+
+	/**
+	 * Counts the books whose title contains the given text. Unlike a page of the search, the count visits every
+	 * match, so a scan of a large catalog is spread over the chunks in parallel. Paged searches stay sequential, a
+	 * parallel stream would scan ahead for results that are dropped by the page limit.
+	 */
+	public long countBooksByTitle(final String _title)
+	{
+		final String title = NGramIndex.normalize(_title);
+
+		return this.unlockedRead(() ->
+		{
+			if (title.length() >= NGramIndex.GRAM_LENGTH)
+			{
+				return this.searchStream(title, 0L).count();
+			}
+			final ChunkedList<Book>.Snapshot snapshot = this.books.snapshot();
+			final Stream<Book> scanned = snapshot.size() > PARALLEL_SCAN_THRESHOLD
+				? snapshot.parallelStream(0L)
+				: snapshot.stream(0L);
+			return scanned.filter(b -> b.getTitleSearchKey().contains(title)).count();
+		});
+	}
+
+	private static int clampPageSize(final int pageSize)
+	{
+		return Math.clamp(pageSize, 1, PAGE_SIZE_LIMIT);
+	}
+
 	public void insert(final Book book) throws IndexAlreadyExistsException
 	{
+		if (this.groupCommitter != null)
+		{
+			this.groupCommitter.submit(book);
+			return;
+		}
+
 		this.write(() ->
 		{
 			this.ensureUniqueIndex(book);
-			book.setId(this.books.size() + 1L);
-			this.books.add(book, this.storage);
-			this.storage.store(this.books);
+
+			// everything changed by the insert is written in a single commit
+			final Storer storer = this.storage.createLazyStorer();
+			this.stamp.mutate(() ->
+			{
+				book.setId(this.books.size() + 1L);
+				this.books.add(book, storer);
+				this.isbnIndex.put(book.getIsbn(), book.getId(), storer);
+				this.titleIndex.add(book.getId(), book.getTitleSearchKey(), storer);
+			});
+			this.storeMetrics.commit("book.insert", storer, this.storage);
 		});
 	}
 
 	public void insertAll(final List<Book> moreBooks) throws IndexAlreadyExistsException
 	{
+		ensureUniqueInBatch(moreBooks);
+
 		this.write(() ->
 		{
 			for (final Book book : moreBooks)
 			{
 				this.ensureUniqueIndex(book);
+			}
 
-				if (moreBooks.stream().filter(b -> b.getIsbn().equals(book.getIsbn())).count() > 1)
+			this.append(moreBooks, "book.insertAll");
+		});
+
+	}
+
+	/**
+	 * Inserts the books whose isbn is not taken yet and skips the others, instead of rejecting the whole list.
+	 *
+	 * @return the number of inserted books
+	 */
+	public int importBooks(final List<Book> moreBooks)
+	{
+		return this.write(() ->
+		{
+			final List<Book> accepted = new ArrayList<>(moreBooks.size());
+			final Set<String> isbns = HashSet.newHashSet(moreBooks.size());
+			for (final Book book : moreBooks)
+			{
+				if (!this.isbnIndex.contains(book.getIsbn()) && isbns.add(book.getIsbn()))
 				{
-					throw new IndexAlreadyExistsException("Books with duplicate isbn / id found in batch save.");
+					accepted.add(book);
 				}
 			}
+			if (!accepted.isEmpty())
+			{
+				this.append(accepted, "book.import");
+			}
+			return accepted.size();
+		});
+	}
 
-			final long nextId = this.books.size() + 1L;
-			for (int i = 0; i < moreBooks.size(); i++)
+	private void insertBatch(final List<GroupCommitter.Pending<Book>> batch)
+	{
+		this.write(() ->
+		{
+			final List<Book> accepted = new ArrayList<>(batch.size());
+			final Set<String> isbns = HashSet.newHashSet(batch.size());
+			for (final var pending : batch)
 			{
-				moreBooks.get(i).setId(nextId + i);
+				final Book book = pending.item();
+				if (this.isbnIndex.contains(book.getIsbn()) || !isbns.add(book.getIsbn()))
+				{
+					pending.reject(
+						new IndexAlreadyExistsException("Book with isbn %s already exists.".formatted(book.getIsbn()))
+					);
+				}
+				else
+				{
+					accepted.add(book);
+				}
+			}
+			if (!accepted.isEmpty())
+			{
+				this.append(accepted, "book.groupInsert");
 			}
+		});
+	}
 
-			this.books.addAll(moreBooks, this.storage);
+	private void append(final List<Book> moreBooks, final String operation)
+	{
+		final Storer storer = this.storage.createLazyStorer();
+		this.stamp.mutate(() -> this.addAll(moreBooks, storer));
+		this.storeMetrics.commit(operation, storer, this.storage);
+	}
+
+	private void addAll(final List<Book> moreBooks, final Storer storer)
+	{
+		final long nextId = this.books.size() + 1L;
+		for (int i = 0; i < moreBooks.size(); i++)
+		{
+			moreBooks.get(i).setId(nextId + i);
+		}
+
+		// a storer skips instances it has already seen, the bulk operations store every changed instance once
+		this.books.addAll(moreBooks, storer);
+		this.isbnIndex.putAll(
+			moreBooks.stream().collect(Collectors.toMap(Book::getIsbn, Book::getId)),
+			storer
+		);
+		this.titleIndex.addAll(moreBooks, Book::getId, Book::getTitleSearchKey, storer);
+	}
+
+	/**
+	 * Moves all books into a new {@link ChunkedList} with the given chunk size. The new list is staged in the root
+	 * first, then the books are copied in batches that each hold the read lock only briefly, so inserts go on in
+	 * between. The books inserted during the last batch are copied under the write lock right before the new list
+	 * replaces the old one.
+	 */
+	public synchronized void rechunkBooks(final int chunkSize)
+	{
+		final ChunkedList<Book> rechunked = new ChunkedList<>(chunkSize);
+		final long clearsBefore = this.clears;
+		// the copied chunks are unloaded like the ones of the current list, a large catalog does not fit the heap twice
+		rechunked.setResidencyManager(this.residency);
+		rechunked.setSingleWriter(this.singleWriter);
+		this.write(() ->
+		{
+			this.root.setRechunkedBooks(rechunked);
+			this.storage.store(this.root);
 		});
 
+		try
+		{
+			long copied = 0L;
+			boolean caughtUp = false;
+			while (!caughtUp)
+			{
+				final long from = copied;
+				copied = this.read(() ->
+				{
+					final ChunkedList<Book> current = this.books;
+					this.ensureNotCleared(current, from, clearsBefore);
+					final long to = Math.min(from + RECHUNK_BATCH_SIZE, current.size());
+					rechunked.addAll(current, from, to, this.storage);
+					return to;
+				});
+				// a short batch reached the end, what has been inserted since is copied under the write lock
+				caughtUp = copied - from < RECHUNK_BATCH_SIZE;
+			}
+
+			final long copiedBatches = copied;
+			this.write(() ->
+			{
+				final ChunkedList<Book> current = this.books;
+				this.ensureNotCleared(current, copiedBatches, clearsBefore);
+				rechunked.addAll(current, copiedBatches, Long.MAX_VALUE, this.storage);
+				this.root.setBooks(rechunked);
+				this.root.setRechunkedBooks(null);
+				this.storage.store(this.root);
+
+				current.setResidencyManager(null);
+				this.books = rechunked;
+			});
+		}
+		catch (final RuntimeException e)
+		{
+			rechunked.setResidencyManager(null);
+			this.write(() ->
+			{
+				this.root.setRechunkedBooks(null);
+				this.storage.store(this.root);
+			});
+			throw e;
+		}
+	}
+
+	/**
+	 * A clear followed by enough inserts does not shrink the list, only the clear counter tells it apart. The size
+	 * check also catches clears that did not go through this repository.
+	 */
+	private void ensureNotCleared(final ChunkedList<Book> books, final long copied, final long clearsBefore)
+	{
+		if (this.clears != clearsBefore || books.size() < copied)
+		{
+			throw new IllegalStateException("Books have been cleared while re-chunking.");
+		}
 	}
 
 	public long countBooks()
 	{
-		return this.read(this.books::size);
+		// the size of the snapshot, without any lock on single writer nodes, otherwise replication may change the
+		// chunk directory it is checked against
+		return this.unlockedRead(this.books::size);
 	}
 
-	public void clearBooks()
+	public void bindSearchCacheMetrics(final MeterRegistry registry)
+	{
+		this.searchCache.bindTo(registry, "book.search");
+	}
+
+	/**
+	 * Runs a short read without taking the read lock, see {@link VersionStamp}.
+	 */
+	private <T> T optimisticRead(final Supplier<T> read)
+	{
+		return this.stamp.read(read, () -> this.read(read::get));
+	}
+
+	/**
+	 * Runs a search or listing without taking the read lock. Those only go through a snapshot of the chunked list and
+	 * the n-gram index, which both stay consistent while a writer appends to them. Only single writer nodes skip the
+	 * lock, on all others writes still block searches and listings.
+	 */
+	private <T> T unlockedRead(final Supplier<T> read)
+	{
+		return this.stamp.unlocked(read, () -> this.read(read::get));
+	}
+
+	/**
+	 * @param onCleared runs within the write lock right after the entities have been cleared from memory, before any
+	 *        reader can look up the cleared state
+	 */
+	public void clearBooks(final Runnable onCleared)
 	{
 		this.write(() ->
 		{
-			this.books.clear(this.storage);
-			this.storage.store(this.books);
+			final Storer storer = this.storage.createLazyStorer();
+			this.stamp.mutate(() ->
+			{
+				this.books.clear(storer);
+				this.isbnIndex.clear(storer);
+				this.titleIndex.clear(storer);
+				this.clears++;
+				onCleared.run();
+			});
+			this.storeMetrics.commit("book.clear", storer, this.storage);
 		});
 	}
 
 	private void ensureUniqueIndex(final Book book) throws IndexAlreadyExistsException
 	{
-		if (this.books.stream().anyMatch(b -> b.getIsbn().equals(book.getIsbn())))
+		if (this.isbnIndex.contains(book.getIsbn()))
 		{
 			throw new IndexAlreadyExistsException("Book with isbn %s already exists.".formatted(book.getIsbn()));
 		}
 	}
+
+	private static void ensureUniqueInBatch(final List<Book> moreBooks) throws IndexAlreadyExistsException
+	{
+		final Set<String> isbns = HashSet.newHashSet(moreBooks.size());
+		for (final Book book : moreBooks)
+		{
+			if (!isbns.add(book.getIsbn()))
+			{
+				throw new IndexAlreadyExistsException("Books with duplicate isbn / id found in batch save.");
+			}
+		}
+	}
 }
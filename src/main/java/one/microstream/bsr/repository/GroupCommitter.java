@@ -0,0 +1,155 @@
+package one.microstream.bsr.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Queues single inserts of concurrent callers and hands them to the writer in batches, so that one write lock and one
+ * storer commit serve the whole batch. A batch is closed once it holds <code>maxBatchSize</code> items or the first
+ * item waited <code>maxLinger</code>. The writer rejects single items, every item it does not reject succeeds with the
+ * batch. An exception of the writer fails the whole batch, an error also shuts the committer down.
+ */
+final class GroupCommitter<T> implements AutoCloseable
+{
+	private final BlockingQueue<Pending<T>> queue = new LinkedBlockingQueue<>();
+	private final int maxBatchSize;
+	private final long maxLingerNanos;
+	private final Consumer<List<Pending<T>>> writer;
+	private final Thread worker;
+	private volatile boolean closed;
+
+	GroupCommitter(
+		final String name,
+		final int maxBatchSize,
+		final Duration maxLinger,
+		final Consumer<List<Pending<T>>> writer
+	)
+	{
+		this.maxBatchSize = maxBatchSize;
+		this.maxLingerNanos = maxLinger.toNanos();
+		this.writer = writer;
+		this.worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+	}
+
+	/**
+	 * Blocks until the batch containing <code>item</code> has been committed and rethrows the exception the item was
+	 * rejected with.
+	 */
+	void submit(final T item)
+	{
+		if (this.closed)
+		{
+			throw new IllegalStateException("Group commit has been shut down.");
+		}
+		final var pending = new Pending<>(item);
+		this.queue.add(pending);
+		// the worker may have drained the queue for the last time right before the item was added
+		if (this.closed)
+		{
+			pending.reject(new IllegalStateException("Group commit has been shut down."));
+		}
+		try
+		{
+			pending.result.join();
+		}
+		catch (final CompletionException e)
+		{
+			if (e.getCause() instanceof final RuntimeException cause)
+			{
+				throw cause;
+			}
+			if (e.getCause() instanceof final Error cause)
+			{
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private void run()
+	{
+		final List<Pending<T>> batch = new ArrayList<>(this.maxBatchSize);
+		try
+		{
+			while (!this.closed)
+			{
+				batch.add(this.queue.take());
+				final long deadline = System.nanoTime() + this.maxLingerNanos;
+				while (batch.size() < this.maxBatchSize)
+				{
+					final Pending<T> next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null)
+					{
+						break;
+					}
+					batch.add(next);
+				}
+				this.commit(batch);
+				batch.clear();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		final var shutdown = new IllegalStateException("Group commit has been shut down.");
+		batch.forEach(p -> p.reject(shutdown));
+		this.queue.forEach(p -> p.reject(shutdown));
+	}
+
+	private void commit(final List<Pending<T>> batch)
+	{
+		try
+		{
+			this.writer.accept(batch);
+			// no-op for the items the writer rejected
+			batch.forEach(p -> p.result.complete(null));
+		}
+		catch (final RuntimeException e)
+		{
+			batch.forEach(p -> p.reject(e));
+		}
+		catch (final Throwable t)
+		{
+			// after an error the state of the writer is unknown, further items are rejected right away
+			this.closed = true;
+			batch.forEach(p -> p.result.completeExceptionally(t));
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		this.closed = true;
+		this.worker.interrupt();
+	}
+
+	static final class Pending<T>
+	{
+		private final T item;
+		private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+		private Pending(final T item)
+		{
+			this.item = item;
+		}
+
+		T item()
+		{
+			return this.item;
+		}
+
+		void reject(final RuntimeException e)
+		{
+			this.result.completeExceptionally(e);
+		}
+	}
+}
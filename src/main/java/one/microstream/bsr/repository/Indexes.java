@@ -0,0 +1,37 @@
+package one.microstream.bsr.repository;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.eclipse.store.storage.types.StorageManager;
+
+import one.microstream.bsr.DataRoot;
+
+final class Indexes
+{
+	/**
+	 * Returns the index kept in the root. Storages created before the index existed load it as <code>null</code>, it
+	 * is then rebuilt once from the stored entities and stored with the root. Has to run under the write lock.
+	 *
+	 * @param rebuild builds the index from the stored entities
+	 */
+	static <T> T ensureIndex(
+		final DataRoot root,
+		final StorageManager storage,
+		final Supplier<T> stored,
+		final Consumer<T> replace,
+		final Supplier<T> rebuild
+	)
+	{
+		if (stored.get() == null)
+		{
+			replace.accept(rebuild.get());
+			storage.store(root);
+		}
+		return stored.get();
+	}
+
+	private Indexes()
+	{
+	}
+}
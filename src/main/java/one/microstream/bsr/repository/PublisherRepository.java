@@ -1,40 +1,197 @@
 package one.microstream.bsr.repository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
 import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterStorageManager;
 import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.eclipse.serializer.persistence.types.Storer;
 import org.eclipse.store.storage.types.StorageManager;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import one.microstream.bsr.ChunkResidencyManager;
+import one.microstream.bsr.ChunkedList;
 import one.microstream.bsr.DataRoot;
+import one.microstream.bsr.NGramIndex;
+import one.microstream.bsr.UniqueIndex;
+import one.microstream.bsr.config.ChunkSizeConfiguration;
+import one.microstream.bsr.config.GroupCommitConfiguration;
+import one.microstream.bsr.config.OptimisticReadConfiguration;
+import one.microstream.bsr.config.SearchCacheConfiguration;
 import one.microstream.bsr.domain.Publisher;
 import one.microstream.bsr.exception.IndexAlreadyExistsException;
+import one.microstream.bsr.metrics.LockMetrics;
+import one.microstream.bsr.metrics.StoreMetrics;
 
 @Singleton
 public class PublisherRepository extends ClusterLockScope
 {
-	private static final int PAGE_SIZE_LIMIT = 250;
+	public static final int PAGE_SIZE_LIMIT = 250;
 
-	private final List<Publisher> publishers;
+	private final ChunkedList<Publisher> publishers;
+	private final UniqueIndex<String> emailIndex;
+	private final NGramIndex companyIndex;
 	private final StorageManager storage;
+	private final StoreMetrics storeMetrics;
+	private final GroupCommitter<Publisher> groupCommitter;
+	private final VersionStamp stamp;
+	private final SearchCache<Publisher> searchCache;
 
-	public PublisherRepository(final ClusterStorageManager<DataRoot> storageManager, final LockedExecutor executor)
+	@Inject
+	public PublisherRepository(
+		final ClusterStorageManager<DataRoot> storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
 	{
-		super(executor);
+		this(
+			storageManager.root().get(),
+			storageManager,
+			executor,
+			residency,
+			chunkSizes,
+			storeMetrics,
+			lockMetrics,
+			groupCommit,
+			optimisticReads,
+			searchCache
+		);
+	}
+
+	/**
+	 * Creates the repository on a plain, not clustered storage, used by the benchmarks
+	 * through <code>BenchmarkRepositories</code>.
+	 */
+	PublisherRepository(
+		final DataRoot root,
+		final StorageManager storageManager,
+		final LockedExecutor executor,
+		final ChunkResidencyManager residency,
+		final ChunkSizeConfiguration chunkSizes,
+		final StoreMetrics storeMetrics,
+		final LockMetrics lockMetrics,
+		final GroupCommitConfiguration groupCommit,
+		final OptimisticReadConfiguration optimisticReads,
+		final SearchCacheConfiguration searchCache
+	)
+	{
+		super(lockMetrics.instrument("publisher", executor));
+		this.stamp = new VersionStamp(optimisticReads.enabled());
+		this.searchCache = new SearchCache<>(searchCache, this.stamp);
 		this.storage = storageManager;
-		this.publishers = storageManager.root().get().getPublishers();
+		this.storeMetrics = storeMetrics;
+		this.publishers = this.write(() -> this.ensureChunkedPublishers(root, chunkSizes.publishers()));
+		this.publishers.setResidencyManager(residency);
+		// optimistic reads are only enabled on nodes that are the single writer of their storage
+		this.publishers.setSingleWriter(optimisticReads.enabled());
+		// loads the tail chunk once to publish the size, counting never loads a chunk afterwards
+		this.publishers.snapshot();
+		this.emailIndex = this.write(() -> this.ensureEmailIndex(root));
+		this.companyIndex = this.write(() -> this.ensureCompanyIndex(root));
+		this.companyIndex.setSingleWriter(optimisticReads.enabled());
+		this.groupCommitter = groupCommit.enabled()
+			? new GroupCommitter<>(
+				"publisher-group-commit",
+				groupCommit.maxBatchSize(),
+				groupCommit.maxLinger(),
+				this::insertBatch
+			)
+			: null;
+	}
+
+	@PreDestroy
+	void close()
+	{
+		if (this.groupCommitter != null)
+		{
+			this.groupCommitter.close();
+		}
+	}
+
+	private ChunkedList<Publisher> ensureChunkedPublishers(final DataRoot root, final int chunkSize)
+	{
+		// storages created before the publishers were chunked keep them in a plain list, move them over once
+		if (root.getPublishers() == null)
+		{
+			final ChunkedList<Publisher> chunked = new ChunkedList<>(chunkSize);
+			chunked.addAll(root.getLegacyPublishers(), this.storage);
+			root.setPublishers(chunked);
+			root.clearLegacyPublishers();
+			this.storage.store(root);
+		}
+		else if (root.getPublishers().size() == 0 && root.getPublishers().getChunkSize() != chunkSize)
+		{
+			root.setPublishers(new ChunkedList<>(chunkSize));
+			this.storage.store(root);
+		}
+		return root.getPublishers();
+	}
+
+	private UniqueIndex<String> ensureEmailIndex(final DataRoot root)
+	{
+		return Indexes.ensureIndex(root, this.storage, root::getPublisherEmailIndex, root::setPublisherEmailIndex, () ->
+		{
+			final var index = new UniqueIndex<String>();
+			index.putAll(
+				this.publishers.stream().collect(Collectors.toMap(Publisher::getEmail, Publisher::getId)),
+				this.storage
+			);
+			return index;
+		});
+	}
+
+	private NGramIndex ensureCompanyIndex(final DataRoot root)
+	{
+		return Indexes.ensureIndex(
+			root,
+			this.storage,
+			root::getPublisherCompanyIndex,
+			root::setPublisherCompanyIndex,
+			() ->
+			{
+				final var index = new NGramIndex();
+				index.addAll(
+					this.publishers.stream().toList(),
+					Publisher::getId,
+					Publisher::getCompanySearchKey,
+					this.storage
+				);
+				return index;
+			}
+		);
 	}
 
 	public Publisher getPublisherByEmail(final String email)
 	{
-		return this.read(() -> this.publishers.stream().filter(a -> a.getEmail().equals(email)).findAny().orElse(null));
+		return this.optimisticRead(() ->
+		{
+			final Long id = this.emailIndex.get(email);
+			return id == null ? null : this.publishers.get((int)(id - 1));
+		});
 	}
 
 	public Publisher getPublisherById(final long id)
 	{
-		return this.read(() -> this.publishers.stream().filter(a -> a.getId() == id).findAny().orElse(null));
+		// ids are assigned densely starting at 1, so they double as list positions
+		return this.optimisticRead(
+			() -> id < 1 || id > this.publishers.size() ? null : this.publishers.get((int)(id - 1))
+		);
 	}
 
 	public List<Publisher> searchPublishersByCompany(final String company)
@@ -49,78 +206,257 @@ public class PublisherRepository extends ClusterLockScope
 
 	public List<Publisher> searchPublishersByCompany(final String _company, final int page, final int pageSize)
 	{
-		final String company = _company.toLowerCase(); // java lambdas man...
+		final String company = NGramIndex.normalize(_company); // java lambdas man...
 
-		final int offset = (page - 1) * pageSize;
-		final int limit = Math.max(pageSize, PAGE_SIZE_LIMIT);
+		final int limit = clampPageSize(pageSize);
+		final long offset = (Math.max(page, 1) - 1L) * limit;
 
-		return this.read(
-			() -> this.publishers.stream()
-				.filter(a -> a.getCompany().toLowerCase().contains(company))
-				.skip(offset)
-				.limit(limit)
-				.toList()
+		return this.searchCache.get(
+			company,
+			0L,
+			offset,
+			limit,
+			() -> this.unlockedRead(() -> this.searchStream(company, 0L).skip(offset).limit(limit).toList())
 		);
 	}
 
+	public List<Publisher> searchPublishersByCompanyAfter(final String company, final long afterId)
+	{
+		return this.searchPublishersByCompanyAfter(company, afterId, PAGE_SIZE_LIMIT);
+	}
+
+	/**
+	 * Keyset variant of the paged search, it resumes right after the entity with the id <code>afterId</code> instead
+	 * of skipping all matches of the previous pages.
+	 */
+	public List<Publisher> searchPublishersByCompanyAfter(final String _company, final long afterId, final int pageSize)
+	{
+		final String company = NGramIndex.normalize(_company);
+		final int limit = clampPageSize(pageSize);
+
+		return this.searchCache.get(
+			company,
+			afterId,
+			0L,
+			limit,
+			() -> this.unlockedRead(() -> this.searchStream(company, afterId).limit(limit).toList())
+		);
+	}
+
+	public List<Publisher> listPublishersAfter(final long afterId)
+	{
+		return this.listPublishersAfter(afterId, PAGE_SIZE_LIMIT);
+	}
+
+	public List<Publisher> listPublishersAfter(final long afterId, final int pageSize)
+	{
+		final int limit = clampPageSize(pageSize);
+		return this.unlockedRead(() -> this.publishers.stream(afterId).limit(limit).toList());
+	}
+
+	private Stream<Publisher> searchStream(final String company, final long afterId)
+	{
+		// ids indexed after the snapshot was taken are not in it yet, candidates are ascending
+		final ChunkedList<Publisher>.Snapshot snapshot = this.publishers.snapshot();
+		final LongStream candidates = this.companyIndex.candidates(company, afterId);
+		final Stream<Publisher> scanned = candidates == null
+			? snapshot.stream(afterId)
+			: candidates.takeWhile(id -> id <= snapshot.size()).mapToObj(id -> snapshot.get((int)(id - 1)));
+		return scanned.filter(p -> p.getCompanySearchKey().contains(company));
+	}
+
+	private static int clampPageSize(final int pageSize)
+	{
+		return Math.clamp(pageSize, 1, PAGE_SIZE_LIMIT);
+	}
+
 	public void insert(final Publisher publisher) throws IndexAlreadyExistsException
 	{
+		if (this.groupCommitter != null)
+		{
+			this.groupCommitter.submit(publisher);
+			return;
+		}
+
 		this.write(() ->
 		{
 			this.ensureUniqueIndex(publisher);
-			publisher.setId(this.publishers.size() + 1L);
-			this.publishers.add(publisher);
-			this.storage.store(this.publishers);
+
+			final Storer storer = this.storage.createLazyStorer();
+			this.stamp.mutate(() ->
+			{
+				publisher.setId(this.publishers.size() + 1L);
+				this.publishers.add(publisher, storer);
+				this.emailIndex.put(publisher.getEmail(), publisher.getId(), storer);
+				this.companyIndex.add(publisher.getId(), publisher.getCompanySearchKey(), storer);
+			});
+			this.storeMetrics.commit("publisher.insert", storer, this.storage);
 		});
 	}
 
 	public void insertAll(final List<Publisher> morePublishers) throws IndexAlreadyExistsException
 	{
+		ensureUniqueInBatch(morePublishers);
+
 		this.write(() ->
 		{
 			for (final Publisher publisher : morePublishers)
 			{
 				this.ensureUniqueIndex(publisher);
+			}
+
+			this.append(morePublishers, "publisher.insertAll");
+		});
 
-				if (morePublishers.stream().filter(b -> b.getEmail().equals(publisher.getEmail())).count() > 1)
+	}
+
+	/**
+	 * Inserts the publishers whose email is not taken yet and skips the others, instead of rejecting the whole list.
+	 *
+	 * @return the number of inserted publishers
+	 */
+	public int importPublishers(final List<Publisher> morePublishers)
+	{
+		return this.write(() ->
+		{
+			final List<Publisher> accepted = new ArrayList<>(morePublishers.size());
+			final Set<String> emails = HashSet.newHashSet(morePublishers.size());
+			for (final Publisher publisher : morePublishers)
+			{
+				if (!this.emailIndex.contains(publisher.getEmail()) && emails.add(publisher.getEmail()))
 				{
-					throw new IndexAlreadyExistsException("Publishers with duplicate email found in batch save.");
+					accepted.add(publisher);
 				}
 			}
-
-			final long nextId = this.publishers.size() + 1L;
-			for (int i = 0; i < morePublishers.size(); i++)
+			if (!accepted.isEmpty())
 			{
-				morePublishers.get(i).setId(nextId + i);
+				this.append(accepted, "publisher.import");
 			}
+			return accepted.size();
+		});
+	}
 
-			this.publishers.addAll(morePublishers);
-			this.storage.store(this.publishers);
+	private void insertBatch(final List<GroupCommitter.Pending<Publisher>> batch)
+	{
+		this.write(() ->
+		{
+			final List<Publisher> accepted = new ArrayList<>(batch.size());
+			final Set<String> emails = HashSet.newHashSet(batch.size());
+			for (final var pending : batch)
+			{
+				final Publisher publisher = pending.item();
+				if (this.emailIndex.contains(publisher.getEmail()) || !emails.add(publisher.getEmail()))
+				{
+					pending.reject(
+						new IndexAlreadyExistsException(
+							"Publisher with email %s already exists.".formatted(publisher.getEmail())
+						)
+					);
+				}
+				else
+				{
+					accepted.add(publisher);
+				}
+			}
+			if (!accepted.isEmpty())
+			{
+				this.append(accepted, "publisher.groupInsert");
+			}
 		});
+	}
 
+	private void append(final List<Publisher> morePublishers, final String operation)
+	{
+		final Storer storer = this.storage.createLazyStorer();
+		this.stamp.mutate(() -> this.addAll(morePublishers, storer));
+		this.storeMetrics.commit(operation, storer, this.storage);
+	}
+
+	private void addAll(final List<Publisher> morePublishers, final Storer storer)
+	{
+		final long nextId = this.publishers.size() + 1L;
+		for (int i = 0; i < morePublishers.size(); i++)
+		{
+			morePublishers.get(i).setId(nextId + i);
+		}
+
+		this.publishers.addAll(morePublishers, storer);
+		this.emailIndex.putAll(
+			morePublishers.stream().collect(Collectors.toMap(Publisher::getEmail, Publisher::getId)),
+			storer
+		);
+		this.companyIndex.addAll(morePublishers, Publisher::getId, Publisher::getCompanySearchKey, storer);
 	}
 
 	public long countPublishers()
 	{
-		return this.read(this.publishers::size);
+		// the size of the snapshot, without any lock on single writer nodes, otherwise replication may change the
+		// chunk directory it is checked against
+		return this.unlockedRead(this.publishers::size);
+	}
+
+	public void bindSearchCacheMetrics(final MeterRegistry registry)
+	{
+		this.searchCache.bindTo(registry, "publisher.search");
+	}
+
+	/**
+	 * Runs a short read without taking the read lock, see {@link VersionStamp}.
+	 */
+	private <T> T optimisticRead(final Supplier<T> read)
+	{
+		return this.stamp.read(read, () -> this.read(read::get));
 	}
 
-	public void clearPublishers()
+	/**
+	 * Runs a search or listing without taking the read lock. Those only go through a snapshot of the chunked list and
+	 * the n-gram index, which both stay consistent while a writer appends to them. Only single writer nodes skip the
+	 * lock, on all others writes still block searches and listings.
+	 */
+	private <T> T unlockedRead(final Supplier<T> read)
+	{
+		return this.stamp.unlocked(read, () -> this.read(read::get));
+	}
+
+	/**
+	 * @param onCleared runs within the write lock right after the entities have been cleared from memory, before any
+	 *        reader can look up the cleared state
+	 */
+	public void clearPublishers(final Runnable onCleared)
 	{
 		this.write(() ->
 		{
-			this.publishers.clear();
-			this.storage.store(this.publishers);
+			final Storer storer = this.storage.createLazyStorer();
+			this.stamp.mutate(() ->
+			{
+				this.publishers.clear(storer);
+				this.emailIndex.clear(storer);
+				this.companyIndex.clear(storer);
+				onCleared.run();
+			});
+			this.storeMetrics.commit("publisher.clear", storer, this.storage);
 		});
 	}
 
 	private void ensureUniqueIndex(final Publisher publisher) throws IndexAlreadyExistsException
 	{
-		if (this.publishers.stream().anyMatch(b -> b.getEmail().equals(publisher.getEmail())))
+		if (this.emailIndex.contains(publisher.getEmail()))
 		{
 			throw new IndexAlreadyExistsException(
 				"Publisher with email %s already exists.".formatted(publisher.getEmail())
 			);
 		}
 	}
+
+	private static void ensureUniqueInBatch(final List<Publisher> morePublishers) throws IndexAlreadyExistsException
+	{
+		final Set<String> emails = HashSet.newHashSet(morePublishers.size());
+		for (final Publisher publisher : morePublishers)
+		{
+			if (!emails.add(publisher.getEmail()))
+			{
+				throw new IndexAlreadyExistsException("Publishers with duplicate email found in batch save.");
+			}
+		}
+	}
 }
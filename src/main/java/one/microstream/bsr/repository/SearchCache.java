@@ -0,0 +1,77 @@
+package one.microstream.bsr.repository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import one.microstream.bsr.config.SearchCacheConfiguration;
+
+/**
+ * Caches search result pages of a repository, bounded by the total number of cached results. Entries are keyed by the
+ * write epoch of the {@link VersionStamp}, so every mutation makes all previous pages unreachable and they are evicted
+ * over time instead of being invalidated one by one.
+ */
+final class SearchCache<E>
+{
+	private record Key(long epoch, String query, long afterId, long offset, int limit)
+	{
+	}
+
+	private final VersionStamp stamp;
+	private final Cache<Key, List<E>> cache;
+
+	SearchCache(final SearchCacheConfiguration configuration, final VersionStamp stamp)
+	{
+		this.stamp = stamp;
+		this.cache = configuration.enabled()
+			? Caffeine.newBuilder()
+				.maximumWeight(configuration.maxResults())
+				.<Key, List<E>>weigher((key, page) -> page.size() + 1)
+				.recordStats()
+				.build()
+			: null;
+	}
+
+	/**
+	 * Returns the cached page or runs the search. The epoch is read before the search, so a page that already
+	 * contains the results of a concurrent mutation is at worst cached under the epoch before it.
+	 *
+	 * @param query the normalized query
+	 */
+	List<E> get(
+		final String query,
+		final long afterId,
+		final long offset,
+		final int limit,
+		final Supplier<List<E>> search
+	)
+	{
+		if (this.cache == null)
+		{
+			return search.get();
+		}
+
+		// not computed within the cache, a long scan would block other keys of the same hash bin
+		final Key key = new Key(this.stamp.epoch(), query, afterId, offset, limit);
+		final List<E> cached = this.cache.getIfPresent(key);
+		if (cached != null)
+		{
+			return cached;
+		}
+		final List<E> page = search.get();
+		this.cache.put(key, page);
+		return page;
+	}
+
+	void bindTo(final MeterRegistry registry, final String name)
+	{
+		if (this.cache != null)
+		{
+			CaffeineCacheMetrics.monitor(registry, this.cache, name);
+		}
+	}
+}
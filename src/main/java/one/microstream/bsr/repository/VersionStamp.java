@@ -0,0 +1,87 @@
+package one.microstream.bsr.repository;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Sequence lock over the in-memory state of a repository. Writers hold it while they mutate, inside of the cluster
+ * write lock, readers run without any lock and only retry if a mutation overlapped them. A read that failed on torn
+ * state is treated the same way. After a few invalidated attempts the read falls back to the locked read.
+ * <p>
+ * Only mutations made through the repository bump the stamp. Nodes that apply replicated changes to the object graph
+ * themselves have to disable the optimistic reads.
+ */
+final class VersionStamp
+{
+	private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+	private final StampedLock lock = new StampedLock();
+	private final boolean optimisticReads;
+	// only written under the write lock
+	private volatile long epoch;
+
+	VersionStamp(final boolean optimisticReads)
+	{
+		this.optimisticReads = optimisticReads;
+	}
+
+	<T> T read(final Supplier<T> read, final Supplier<T> lockedRead)
+	{
+		for (int attempt = 0; this.optimisticReads && attempt < OPTIMISTIC_ATTEMPTS; attempt++)
+		{
+			final long stamp = this.lock.tryOptimisticRead();
+			if (stamp == 0L)
+			{
+				Thread.onSpinWait();
+				continue;
+			}
+			try
+			{
+				final T value = read.get();
+				if (this.lock.validate(stamp))
+				{
+					return value;
+				}
+			}
+			catch (final RuntimeException e)
+			{
+				if (this.lock.validate(stamp))
+				{
+					throw e;
+				}
+			}
+		}
+		return lockedRead.get();
+	}
+
+	/**
+	 * Runs a read that copes with a concurrent writer by itself without any lock, as long as optimistic reads are
+	 * enabled.
+	 */
+	<T> T unlocked(final Supplier<T> read, final Supplier<T> lockedRead)
+	{
+		return this.optimisticReads ? read.get() : lockedRead.get();
+	}
+
+	/**
+	 * Counts the mutations, it is incremented after every mutation, also a failed one.
+	 */
+	long epoch()
+	{
+		return this.epoch;
+	}
+
+	void mutate(final Runnable mutation)
+	{
+		final long stamp = this.lock.writeLock();
+		try
+		{
+			mutation.run();
+		}
+		finally
+		{
+			this.epoch++;
+			this.lock.unlockWrite(stamp);
+		}
+	}
+}
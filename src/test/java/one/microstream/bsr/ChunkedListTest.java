@@ -0,0 +1,208 @@
+package one.microstream.bsr;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ChunkedListTest
+{
+	private static ChunkedList<Integer> list(final int chunkSize, final int size)
+	{
+		final var list = new ChunkedList<Integer>(chunkSize);
+		list.addAll(range(0, size), new RecordingStoring());
+		return list;
+	}
+
+	private static List<Integer> range(final int from, final int to)
+	{
+		return IntStream.range(from, to).boxed().toList();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Lazy<List<Integer>>> dataOf(final ChunkedList<Integer> list) throws ReflectiveOperationException
+	{
+		// replication writes into the persisted fields, not through the list
+		final Field data = ChunkedList.class.getDeclaredField("data");
+		data.setAccessible(true);
+		return (List<Lazy<List<Integer>>>)data.get(list);
+	}
+
+	@Test
+	void snapshotIsNotAffectedByLaterAdds()
+	{
+		final var list = list(4, 6);
+		final var snapshot = list.snapshot();
+		list.addAll(range(6, 11), new RecordingStoring());
+		list.add(11, new RecordingStoring());
+
+		Assertions.assertEquals(6L, snapshot.size());
+		Assertions.assertEquals(range(0, 6), snapshot.stream(0L).toList());
+		Assertions.assertEquals(range(3, 6), snapshot.stream(3L).toList());
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(6));
+		Assertions.assertEquals(12L, list.size());
+		Assertions.assertEquals(range(0, 12), list.stream().toList());
+	}
+
+	@Test
+	void readsSeeChangesMadeUnderneathTheList() throws ReflectiveOperationException
+	{
+		final var list = list(4, 6);
+		Assertions.assertEquals(6L, list.size());
+
+		final var data = dataOf(list);
+		data.getLast().get().addAll(List.of(6, 7));
+		data.add(Lazy.Reference(new ArrayList<>(List.of(8))));
+
+		Assertions.assertEquals(9L, list.size());
+		Assertions.assertEquals(8, list.get(8));
+		Assertions.assertEquals(range(0, 9), list.stream().toList());
+
+		data.clear();
+		data.add(Lazy.Reference(new ArrayList<>(List.of(100))));
+
+		Assertions.assertEquals(1L, list.size());
+		Assertions.assertEquals(100, list.get(0));
+	}
+
+	@Test
+	void singleWriterTrustsThePublishedSnapshot() throws ReflectiveOperationException
+	{
+		final var list = list(4, 6);
+		list.setSingleWriter(true);
+		Assertions.assertEquals(6L, list.size());
+
+		dataOf(list).add(Lazy.Reference(new ArrayList<>(List.of(8))));
+		Assertions.assertEquals(6L, list.size());
+
+		list.add(6, new RecordingStoring());
+		Assertions.assertEquals(7L, list.size());
+	}
+
+	@Test
+	void snapshotsStayConsistentWhileTheTailIsAppendedTo() throws InterruptedException
+	{
+		final var list = new ChunkedList<Integer>(1000);
+		list.setSingleWriter(true);
+		final int count = 200_000;
+		final var failure = new AtomicReference<String>();
+
+		final Thread writer = Thread.ofPlatform().start(() ->
+		{
+			final var storing = new RecordingStoring();
+			for (int i = 0; i < count; i += 100)
+			{
+				// single adds and batches, both fill and seal the tail chunk
+				if (i / 100 % 2 == 0)
+				{
+					list.add(i, storing);
+					list.addAll(range(i + 1, i + 100), storing);
+				}
+				else
+				{
+					list.addAll(range(i, i + 100), storing);
+				}
+				storing.reset();
+			}
+		});
+		final List<Thread> readers = new ArrayList<>();
+		for (int r = 0; r < 4; r++)
+		{
+			readers.add(Thread.ofPlatform().start(() ->
+			{
+				while (writer.isAlive() && failure.get() == null)
+				{
+					final var snapshot = list.snapshot();
+					final int size = (int)snapshot.size();
+					if (size > 0 && snapshot.get(size - 1) != size - 1)
+					{
+						failure.set("last element of " + size);
+					}
+					final int from = Math.max(0, size - 2500);
+					if (!snapshot.stream(from).toList().equals(range(from, size)))
+					{
+						failure.set("tail of " + size);
+					}
+				}
+			}));
+		}
+
+		writer.join();
+		for (final Thread reader : readers)
+		{
+			reader.join();
+		}
+		Assertions.assertNull(failure.get());
+		Assertions.assertEquals(range(0, count), list.stream().toList());
+	}
+
+	@Test
+	void parallelStreamMatchesTheSequentialStream()
+	{
+		final var list = list(10, 95);
+		for (final long from : new long[]{0L, 5L, 10L, 15L, 90L, 94L, 95L, 200L})
+		{
+			Assertions.assertEquals(
+				list.stream(from).toList(),
+				list.parallelStream(from).toList(),
+				"from " + from
+			);
+		}
+	}
+
+	@Test
+	void splitsOwnWholeChunksAndCoverTheRangeOnce()
+	{
+		final var list = list(10, 95);
+		for (final long from : new long[]{0L, 15L, 40L})
+		{
+			final List<List<Integer>> parts = new ArrayList<>();
+			split(list.parallelStream(from).spliterator(), parts);
+
+			Assertions.assertTrue(parts.size() > 1, "split from " + from);
+			for (final List<Integer> part : parts.subList(1, parts.size()))
+			{
+				Assertions.assertEquals(0, part.getFirst() % 10, "part " + part);
+			}
+			Assertions.assertEquals(
+				range((int)from, 95),
+				parts.stream().flatMap(List::stream).toList(),
+				"from " + from
+			);
+		}
+	}
+
+	private static void split(final Spliterator<Integer> spliterator, final List<List<Integer>> parts)
+	{
+		final Spliterator<Integer> prefix = spliterator.trySplit();
+		if (prefix == null)
+		{
+			final List<Integer> part = new ArrayList<>();
+			spliterator.forEachRemaining(part::add);
+			parts.add(part);
+			return;
+		}
+		split(prefix, parts);
+		split(spliterator, parts);
+	}
+
+	@Test
+	void clearEmptiesTheList()
+	{
+		final var list = list(4, 10);
+		final var snapshot = list.snapshot();
+		list.clear(new RecordingStoring());
+
+		Assertions.assertEquals(0L, list.size());
+		Assertions.assertEquals(List.of(), list.stream().toList());
+		Assertions.assertEquals(10L, snapshot.size());
+		list.add(42, new RecordingStoring());
+		Assertions.assertEquals(42, list.get(0));
+	}
+}
@@ -0,0 +1,234 @@
+package one.microstream.bsr;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class NGramIndexTest
+{
+	private static final int BLOCK_SIZE = 128;
+	private static final int DIRECTORY_IDS = BLOCK_SIZE * 256;
+
+	private static NGramIndex.Postings.View view(final long... ids)
+	{
+		final var postings = new NGramIndex.Postings();
+		final Set<Object> changed = new HashSet<>();
+		for (final long id : ids)
+		{
+			postings.add(id, changed, true);
+		}
+		return postings.view(true);
+	}
+
+	private static long[] candidates(final NGramIndex index, final String query, final long afterId)
+	{
+		return index.candidates(query, afterId).toArray();
+	}
+
+	private static long[] range(final long fromExclusive, final long toInclusive)
+	{
+		return LongStream.rangeClosed(fromExclusive + 1L, toInclusive).toArray();
+	}
+
+	@Test
+	void queriesShorterThanAGramAreNotAnswered()
+	{
+		final var index = new NGramIndex();
+		index.add(1L, "river", new RecordingStoring());
+
+		Assertions.assertNull(index.candidates(""));
+		Assertions.assertNull(index.candidates("ri"));
+		Assertions.assertNull(index.candidates("iv", 1L));
+	}
+
+	@Test
+	void unknownGramHasNoCandidates()
+	{
+		final var index = new NGramIndex();
+		index.add(1L, "river", new RecordingStoring());
+
+		Assertions.assertArrayEquals(new long[0], candidates(index, "rivers", 0L));
+	}
+
+	@Test
+	void candidatesResumeAfterIdAroundBlockBoundaries()
+	{
+		final var index = new NGramIndex();
+		final var storing = new RecordingStoring();
+		for (long id = 1L; id <= 300L; id++)
+		{
+			index.add(id, "river", storing);
+		}
+
+		for (final long afterId : new long[]{0L, 1L, 127L, 128L, 129L, 255L, 256L, 257L, 299L})
+		{
+			Assertions.assertArrayEquals(range(afterId, 300L), candidates(index, "river", afterId), "after " + afterId);
+		}
+		Assertions.assertArrayEquals(new long[0], candidates(index, "river", 300L));
+		Assertions.assertArrayEquals(new long[0], candidates(index, "river", 1000L));
+	}
+
+	@Test
+	void candidatesIntersectAllGramsOfTheQuery()
+	{
+		final var index = new NGramIndex();
+		final var storing = new RecordingStoring();
+		final int count = DIRECTORY_IDS + 3 * BLOCK_SIZE;
+		for (long id = 1L; id <= count; id++)
+		{
+			index.add(id, id % 3L == 0L ? "Riverbank" : id % 5L == 0L ? "bank" : "river", storing);
+		}
+
+		for (final long afterId : new long[]{0L, 128L, 129L, 256L, DIRECTORY_IDS - 1L, DIRECTORY_IDS, count})
+		{
+			final long[] expected = LongStream.rangeClosed(afterId + 1L, count).filter(id -> id % 3L == 0L).toArray();
+			Assertions.assertArrayEquals(expected, candidates(index, "riverbank", afterId), "after " + afterId);
+		}
+	}
+
+	@Test
+	void candidatesCrossDirectories()
+	{
+		final var index = new NGramIndex();
+		final var storing = new RecordingStoring();
+		final long count = DIRECTORY_IDS + 300L;
+		for (long id = 1L; id <= count; id++)
+		{
+			index.add(id, "river", storing);
+		}
+
+		for (final long afterId : new long[]{DIRECTORY_IDS - 1L, DIRECTORY_IDS, DIRECTORY_IDS + 1L})
+		{
+			final long[] expected = range(afterId, count);
+			Assertions.assertArrayEquals(expected, candidates(index, "river", afterId), "after " + afterId);
+		}
+	}
+
+	@Test
+	void positionAfterSkipsToTheFirstGreaterId()
+	{
+		// even ids, the first block ends with 256 and the second one starts with 258
+		final var view = view(LongStream.rangeClosed(1L, 300L).map(i -> i * 2L).toArray());
+
+		Assertions.assertEquals(0, view.positionAfter(0L));
+		Assertions.assertEquals(0, view.positionAfter(1L));
+		Assertions.assertEquals(1, view.positionAfter(2L));
+		Assertions.assertEquals(2, view.positionAfter(5L));
+		Assertions.assertEquals(BLOCK_SIZE - 1, view.positionAfter(254L));
+		Assertions.assertEquals(BLOCK_SIZE, view.positionAfter(256L));
+		Assertions.assertEquals(BLOCK_SIZE, view.positionAfter(257L));
+		Assertions.assertEquals(BLOCK_SIZE + 1, view.positionAfter(258L));
+		Assertions.assertEquals(299, view.positionAfter(599L));
+		Assertions.assertEquals(300, view.positionAfter(600L));
+		Assertions.assertEquals(300, view.positionAfter(10_000L));
+	}
+
+	@Test
+	void containsFindsIdsAtBlockBoundaries()
+	{
+		final var view = view(LongStream.rangeClosed(1L, 300L).map(i -> i * 2L).toArray());
+
+		for (final long id : new long[]{2L, 254L, 256L, 258L, 260L, 512L, 514L, 600L})
+		{
+			Assertions.assertTrue(view.contains(id), "contains " + id);
+		}
+		for (final long id : new long[]{0L, 1L, 255L, 257L, 513L, 601L, 602L})
+		{
+			Assertions.assertFalse(view.contains(id), "contains " + id);
+		}
+	}
+
+	@Test
+	void viewIsNotAffectedByLaterIds()
+	{
+		final var postings = new NGramIndex.Postings();
+		final Set<Object> changed = new HashSet<>();
+		for (long id = 1L; id <= BLOCK_SIZE; id++)
+		{
+			postings.add(id, changed, true);
+		}
+		final var view = postings.view(true);
+		for (long id = BLOCK_SIZE + 1L; id <= 4L * BLOCK_SIZE; id++)
+		{
+			postings.add(id, changed, true);
+		}
+
+		Assertions.assertEquals(BLOCK_SIZE, view.size());
+		Assertions.assertFalse(view.contains(BLOCK_SIZE + 1L));
+		final var iterator = view.iterator(0);
+		for (long id = 1L; id <= BLOCK_SIZE; id++)
+		{
+			Assertions.assertEquals(id, iterator.nextLong());
+		}
+		Assertions.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	void idsReplicatedIntoTheBlocksAreOnlyCountedWithoutSingleWriter()
+	{
+		final var postings = new NGramIndex.Postings();
+		final Set<Object> changed = new HashSet<>();
+		postings.add(1L, changed, false);
+		postings.add(2L, changed, false);
+		Assertions.assertEquals(2, postings.view(true).size());
+
+		// replication writes into the persisted block, not through the postings
+		@SuppressWarnings("unchecked")
+		final long[] block = ((Lazy<long[]>)postings.view(false).blocks().getFirst()[0]).get();
+		block[2] = 3L;
+
+		Assertions.assertEquals(2, postings.view(true).size());
+		Assertions.assertEquals(3, postings.view(false).size());
+		Assertions.assertTrue(postings.view(false).contains(3L));
+	}
+
+	@Test
+	void addingToAnExistingListOnlyStoresItsBlock()
+	{
+		final var index = new NGramIndex();
+		final var storing = new RecordingStoring();
+		index.add(1L, "abc", storing);
+		Assertions.assertEquals(1L, storing.getStored().stream().filter(Map.class::isInstance).count());
+
+		storing.reset();
+		index.add(2L, "abc", storing);
+		Assertions.assertEquals(1, storing.getStored().size());
+		Assertions.assertTrue(storing.getStored().getFirst() instanceof long[]);
+	}
+
+	@Test
+	void startingABlockDoesNotStoreTheGramMapOrTheListOfDirectories()
+	{
+		final var index = new NGramIndex();
+		final var storing = new RecordingStoring();
+		for (long id = 1L; id <= BLOCK_SIZE; id++)
+		{
+			index.add(id, "abc", storing);
+		}
+
+		storing.reset();
+		index.add(BLOCK_SIZE + 1L, "abc", storing);
+		Assertions.assertFalse(storing.getStored().stream().anyMatch(Map.class::isInstance));
+		Assertions.assertFalse(storing.getStored().stream().anyMatch(List.class::isInstance));
+		Assertions.assertFalse(storing.getStored().stream().anyMatch(NGramIndex.Postings.class::isInstance));
+	}
+
+	@Test
+	void clearRemovesAllCandidates()
+	{
+		final var index = new NGramIndex();
+		final var storing = new RecordingStoring();
+		index.add(1L, "river", storing);
+		index.clear(storing);
+
+		Assertions.assertArrayEquals(new long[0], candidates(index, "river", 0L));
+		index.add(1L, "river", storing);
+		Assertions.assertArrayEquals(new long[]{1L}, candidates(index, "river", 0L));
+	}
+}
@@ -0,0 +1,55 @@
+package one.microstream.bsr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.serializer.persistence.types.PersistenceStoring;
+
+/**
+ * Collects the instances passed to it instead of storing them.
+ */
+public class RecordingStoring implements PersistenceStoring
+{
+	private final List<Object> stored = new ArrayList<>();
+
+	@Override
+	public long store(final Object instance)
+	{
+		this.stored.add(instance);
+		return 0L;
+	}
+
+	@Override
+	public long[] storeAll(final Object... instances)
+	{
+		for (final Object instance : instances)
+		{
+			this.store(instance);
+		}
+		return new long[instances.length];
+	}
+
+	@Override
+	public void storeAll(final Iterable<?> instances)
+	{
+		for (final Object instance : instances)
+		{
+			this.store(instance);
+		}
+	}
+
+	public List<Object> getStored()
+	{
+		return this.stored;
+	}
+
+	public boolean hasStored(final Object instance)
+	{
+		return this.stored.stream().anyMatch(stored -> stored == instance);
+	}
+
+	public void reset()
+	{
+		this.stored.clear();
+	}
+}
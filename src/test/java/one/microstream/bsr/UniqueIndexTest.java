@@ -0,0 +1,68 @@
+package one.microstream.bsr;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class UniqueIndexTest
+{
+	// "a" and "e" hash to the same one of four buckets, "b" to another one
+	private final UniqueIndex<String> index = new UniqueIndex<>(4);
+	private final RecordingStoring storing = new RecordingStoring();
+
+	@Test
+	void putStoresOnlyTheBucketOfTheKey()
+	{
+		this.index.put("a", 1L, this.storing);
+		this.index.put("e", 2L, this.storing);
+
+		final List<Object> stored = this.storing.getStored();
+		Assertions.assertEquals(2, stored.size());
+		Assertions.assertSame(stored.get(0), stored.get(1));
+		Assertions.assertEquals(Map.of("a", 1L, "e", 2L), stored.get(0));
+	}
+
+	@Test
+	void putAllStoresEveryTouchedBucketOnce()
+	{
+		this.index.putAll(Map.of("a", 1L, "b", 2L, "e", 3L), this.storing);
+
+		final List<Object> stored = this.storing.getStored();
+		Assertions.assertEquals(2, stored.size());
+		Assertions.assertNotSame(stored.get(0), stored.get(1));
+		Assertions.assertTrue(stored.contains(Map.of("a", 1L, "e", 3L)));
+		Assertions.assertTrue(stored.contains(Map.of("b", 2L)));
+	}
+
+	@Test
+	void getAndContainsFindThePutKeys()
+	{
+		this.index.put("a", 1L, this.storing);
+		this.index.putAll(Map.of("b", 2L), this.storing);
+
+		Assertions.assertEquals(1L, this.index.get("a"));
+		Assertions.assertEquals(2L, this.index.get("b"));
+		Assertions.assertNull(this.index.get("e"));
+		Assertions.assertTrue(this.index.contains("a"));
+		Assertions.assertFalse(this.index.contains("e"));
+	}
+
+	@Test
+	void clearReplacesTheBucketsAndStoresTheBucketList()
+	{
+		this.index.put("a", 1L, this.storing);
+		final Object bucket = this.storing.getStored().getFirst();
+		this.storing.reset();
+
+		this.index.clear(this.storing);
+
+		final List<Object> stored = this.storing.getStored();
+		Assertions.assertEquals(1, stored.size());
+		Assertions.assertTrue(stored.getFirst() instanceof List<?> buckets && buckets.size() == 4);
+		Assertions.assertFalse(this.index.contains("a"));
+		// the old bucket is dropped, not emptied
+		Assertions.assertEquals(Map.of("a", 1L), bucket);
+	}
+}
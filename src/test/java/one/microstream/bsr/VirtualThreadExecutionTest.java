@@ -0,0 +1,154 @@
+package one.microstream.bsr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import one.microstream.bsr.dto.AddressDto;
+import one.microstream.bsr.dto.AuthorDto;
+import one.microstream.bsr.dto.BookReferenceDto;
+import one.microstream.bsr.dto.PublisherDto;
+import reactor.core.publisher.Flux;
+
+/**
+ * Holds the cluster write lock while more writes than there are event loop threads wait for it. As the controllers
+ * run on virtual threads, the waiting writes do not occupy the event loops and point reads are still answered. The
+ * reads only get past the held write lock with optimistic reads enabled, otherwise they wait for it like the writes.
+ */
+@MicronautTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VirtualThreadExecutionTest implements TestPropertyProvider
+{
+	private static final List<AddressDto> ADDRESSES = List.of(
+		new AddressDto("Street 1", null, "12345", "City", "Country")
+	);
+
+	private Path storageDir;
+
+	@Inject
+	@Client("/")
+	HttpClient client;
+
+	@Inject
+	LockedExecutor executor;
+
+	@Override
+	public @NonNull Map<String, String> getProperties()
+	{
+		try
+		{
+			this.storageDir = Files.createTempDirectory("books-rest-api-test-storage");
+		}
+		catch (final IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		return Map.of(
+			"eclipsestore.storage.main.storage-directory", this.storageDir.toString(),
+			"bsr.optimistic-reads.enabled", "true"
+		);
+	}
+
+	@AfterAll
+	void destroy() throws IOException
+	{
+		try (final var files = Files.walk(this.storageDir))
+		{
+			for (final var file : files.toList().reversed())
+			{
+				Files.delete(file);
+			}
+		}
+	}
+
+	private static BookReferenceDto book(final int number)
+	{
+		return new BookReferenceDto(
+			0L,
+			"978-%010d".formatted(number),
+			"Book " + number,
+			LocalDate.of(2000, 1, 1),
+			1,
+			1,
+			999,
+			1L,
+			1L
+		);
+	}
+
+	@Test
+	void pointReadsKeepFlowingWhileTheWriteLockIsHeld() throws Exception
+	{
+		final var blocking = this.client.toBlocking();
+		blocking.exchange(HttpRequest.PUT("/author", new AuthorDto(null, "a@example.com", "A", "B", ADDRESSES)));
+		blocking.exchange(HttpRequest.PUT("/publisher", new PublisherDto(null, "p@example.com", "P", ADDRESSES)));
+		blocking.exchange(HttpRequest.PUT("/book", book(0)));
+
+		final CountDownLatch held = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final Thread holder = Thread.ofVirtual().start(() -> this.executor.write(() ->
+		{
+			held.countDown();
+			try
+			{
+				release.await();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}));
+		Assertions.assertTrue(held.await(10, TimeUnit.SECONDS));
+
+		// netty defaults to two event loops per core, each waiting write would park one of them
+		final int waitingWrites = Runtime.getRuntime().availableProcessors() * 4;
+		final CompletableFuture<Void> writes = Flux.merge(
+			IntStream.rangeClosed(1, waitingWrites)
+				.mapToObj(i -> this.client.exchange(HttpRequest.PUT("/book", book(i))))
+				.toList()
+		).then().toFuture();
+
+		try
+		{
+			Thread.sleep(500L);
+			Assertions.assertFalse(writes.isDone());
+
+			Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+			{
+				final String book = blocking.retrieve(HttpRequest.GET("/book/id/1"), String.class);
+				Assertions.assertTrue(book.contains("Book 0"));
+				final String author = blocking.retrieve(HttpRequest.GET("/author/id/1"), String.class);
+				Assertions.assertTrue(author.contains("a@example.com"));
+			});
+		}
+		finally
+		{
+			release.countDown();
+			holder.join();
+		}
+
+		writes.get(30, TimeUnit.SECONDS);
+		Assertions.assertEquals(waitingWrites + 1L, blocking.retrieve(HttpRequest.GET("/book/count"), Long.class));
+	}
+}
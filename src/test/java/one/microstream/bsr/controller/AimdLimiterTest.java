@@ -0,0 +1,103 @@
+package one.microstream.bsr.controller;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AimdLimiterTest
+{
+	private static final Duration FAST = Duration.ofHours(1L);
+
+	private static AimdLimiter limiter(final int initialLimit, final int minLimit, final int maxLimit)
+	{
+		return new AimdLimiter("book", "read", initialLimit, minLimit, maxLimit, FAST, 0.5);
+	}
+
+	@Test
+	void fastRequestsRaiseTheLimitWhileItIsAtLeastHalfUsed()
+	{
+		final var limiter = limiter(2, 1, 10);
+		final var first = limiter.tryAcquire();
+		final var second = limiter.tryAcquire();
+
+		first.release(false);
+		Assertions.assertEquals(3, limiter.getLimit());
+		// one of three in flight is less than half of the limit
+		second.release(false);
+		Assertions.assertEquals(3, limiter.getLimit());
+	}
+
+	@Test
+	void idleLimitIsNotRaised()
+	{
+		final var limiter = limiter(4, 1, 10);
+		limiter.tryAcquire().release(false);
+
+		Assertions.assertEquals(4, limiter.getLimit());
+	}
+
+	@Test
+	void limitIsNotRaisedOverTheMaximum()
+	{
+		final var limiter = limiter(2, 1, 2);
+		final var first = limiter.tryAcquire();
+		limiter.tryAcquire();
+		first.release(false);
+
+		Assertions.assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void droppedRequestsLowerTheLimitByTheBackoffRatioDownToTheMinimum()
+	{
+		final var limiter = limiter(10, 2, 10);
+
+		limiter.tryAcquire().release(true);
+		Assertions.assertEquals(5, limiter.getLimit());
+		limiter.tryAcquire().release(true);
+		Assertions.assertEquals(2, limiter.getLimit());
+		limiter.tryAcquire().release(true);
+		Assertions.assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void slowRequestsLowerTheLimit() throws InterruptedException
+	{
+		final var limiter = new AimdLimiter("book", "read", 10, 1, 10, Duration.ofNanos(1L), 0.5);
+		final var permit = limiter.tryAcquire();
+		Thread.sleep(2L);
+		permit.release(false);
+
+		Assertions.assertEquals(5, limiter.getLimit());
+	}
+
+	@Test
+	void requestsOverTheLimitAreRejectedAndCounted()
+	{
+		final var limiter = limiter(2, 1, 10);
+		final var first = limiter.tryAcquire();
+		Assertions.assertNotNull(limiter.tryAcquire());
+
+		Assertions.assertNull(limiter.tryAcquire());
+		Assertions.assertNull(limiter.tryAcquire());
+		Assertions.assertEquals(2L, limiter.getRejected());
+		Assertions.assertEquals(2, limiter.getInFlight());
+
+		first.release(false);
+		Assertions.assertNotNull(limiter.tryAcquire());
+	}
+
+	@Test
+	void onlyTheFirstReleaseOfAPermitCounts()
+	{
+		final var limiter = limiter(10, 1, 10);
+		final var permit = limiter.tryAcquire();
+
+		permit.release(true);
+		permit.release(true);
+		permit.release(false);
+		Assertions.assertEquals(0, limiter.getInFlight());
+		Assertions.assertEquals(5, limiter.getLimit());
+	}
+}
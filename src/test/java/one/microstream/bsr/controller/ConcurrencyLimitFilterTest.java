@@ -0,0 +1,157 @@
+package one.microstream.bsr.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.serializer.concurrency.LockedExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import one.microstream.bsr.dto.AddressDto;
+import one.microstream.bsr.dto.AuthorDto;
+import reactor.core.publisher.Flux;
+
+/**
+ * Holds the cluster write lock while the only write permit of the author controller is taken, the next write is
+ * rejected right away instead of waiting for the lock.
+ */
+@MicronautTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConcurrencyLimitFilterTest implements TestPropertyProvider
+{
+	private static final List<AddressDto> ADDRESSES = List.of(
+		new AddressDto("Street 1", null, "12345", "City", "Country")
+	);
+
+	private Path storageDir;
+
+	@Inject
+	@Client("/")
+	HttpClient client;
+
+	@Inject
+	LockedExecutor executor;
+
+	@Inject
+	ConcurrencyLimitFilter filter;
+
+	@Override
+	public @NonNull Map<String, String> getProperties()
+	{
+		try
+		{
+			this.storageDir = Files.createTempDirectory("books-rest-api-test-storage");
+		}
+		catch (final IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		return Map.of(
+			"eclipsestore.storage.main.storage-directory", this.storageDir.toString(),
+			// counts only get past the held write lock with optimistic reads
+			"bsr.optimistic-reads.enabled", "true",
+			"bsr.concurrency-limit.enabled", "true",
+			"bsr.concurrency-limit.min-limit", "1",
+			"bsr.concurrency-limit.write-initial-limit", "1",
+			"bsr.concurrency-limit.write-max-limit", "1"
+		);
+	}
+
+	@AfterAll
+	void destroy() throws IOException
+	{
+		try (final var files = Files.walk(this.storageDir))
+		{
+			for (final var file : files.toList().reversed())
+			{
+				Files.delete(file);
+			}
+		}
+	}
+
+	private AimdLimiter limiter(final String controller, final String kind)
+	{
+		return this.filter.getLimiters()
+			.stream()
+			.filter(l -> l.getController().equals(controller) && l.getKind().equals(kind))
+			.findFirst()
+			.orElseThrow();
+	}
+
+	@Test
+	void writesOverTheLimitAreRejectedWithServiceUnavailable() throws Exception
+	{
+		final var blocking = this.client.toBlocking();
+		final AimdLimiter writes = this.limiter("author", "write");
+
+		final CountDownLatch held = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final Thread holder = Thread.ofVirtual().start(() -> this.executor.write(() ->
+		{
+			held.countDown();
+			try
+			{
+				release.await();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}));
+		Assertions.assertTrue(held.await(10, TimeUnit.SECONDS));
+
+		final CompletableFuture<Void> first = Flux.from(
+			this.client.exchange(HttpRequest.PUT("/author", new AuthorDto(null, "a@example.com", "A", "B", ADDRESSES)))
+		).then().toFuture();
+
+		try
+		{
+			final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (writes.getInFlight() == 0 && System.nanoTime() < deadline)
+			{
+				Thread.sleep(10L);
+			}
+			Assertions.assertEquals(1, writes.getInFlight());
+
+			final var e = Assertions.assertThrows(
+				HttpClientResponseException.class,
+				() -> blocking.exchange(
+					HttpRequest.PUT("/author", new AuthorDto(null, "b@example.com", "A", "B", ADDRESSES))
+				)
+			);
+			Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+			Assertions.assertEquals("1", e.getResponse().getHeaders().get(HttpHeaders.RETRY_AFTER));
+			Assertions.assertEquals(1L, writes.getRejected());
+
+			// reads have a limit of their own
+			Assertions.assertEquals(0L, blocking.retrieve(HttpRequest.GET("/author/count"), Long.class));
+		}
+		finally
+		{
+			release.countDown();
+			holder.join();
+		}
+
+		first.get(30, TimeUnit.SECONDS);
+		Assertions.assertEquals(0, writes.getInFlight());
+		Assertions.assertEquals(1L, blocking.retrieve(HttpRequest.GET("/author/count"), Long.class));
+	}
+}
@@ -0,0 +1,85 @@
+package one.microstream.bsr.controller;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+class SearchCursorTest
+{
+	private static List<Long> ids(final long count)
+	{
+		return LongStream.rangeClosed(1L, count).boxed().toList();
+	}
+
+	@Test
+	void decodeReturnsTheEncodedId()
+	{
+		for (final long id : new long[]{0L, 1L, 250L, Integer.MAX_VALUE + 1L, Long.MAX_VALUE})
+		{
+			Assertions.assertEquals(id, SearchCursor.decode(SearchCursor.encode(id)));
+		}
+	}
+
+	@Test
+	void invalidCursorsAreBadRequests()
+	{
+		for (final String cursor : new String[]{"", "not base64!", SearchCursor.encode(-1L), "YWJj"})
+		{
+			final var e = Assertions.assertThrows(HttpStatusException.class, () -> SearchCursor.decode(cursor));
+			Assertions.assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+		}
+	}
+
+	@Test
+	void fullPagesCarryTheCursorOfTheLastEntity()
+	{
+		final var response = SearchCursor.page(ids(10L), 10, 250, Function.identity(), Long::longValue);
+
+		Assertions.assertEquals(
+			10L,
+			SearchCursor.decode(response.getHeaders().get(SearchCursor.NEXT_CURSOR_HEADER))
+		);
+	}
+
+	@Test
+	void pagesOfTheDefaultSizeCarryTheCursor()
+	{
+		final var response = SearchCursor.page(ids(250L), null, 250, Function.identity(), Long::longValue);
+
+		Assertions.assertEquals(
+			250L,
+			SearchCursor.decode(response.getHeaders().get(SearchCursor.NEXT_CURSOR_HEADER))
+		);
+	}
+
+	@Test
+	void lastAndEmptyPagesHaveNoCursor()
+	{
+		Assertions.assertNull(
+			SearchCursor.page(ids(9L), 10, 250, Function.identity(), Long::longValue)
+				.getHeaders()
+				.get(SearchCursor.NEXT_CURSOR_HEADER)
+		);
+		Assertions.assertNull(
+			SearchCursor.page(ids(0L), 10, 250, Function.identity(), Long::longValue)
+				.getHeaders()
+				.get(SearchCursor.NEXT_CURSOR_HEADER)
+		);
+	}
+
+	@Test
+	void pageSizesOverTheLimitAreClamped()
+	{
+		Assertions.assertNotNull(
+			SearchCursor.page(ids(250L), 1000, 250, Function.identity(), Long::longValue)
+				.getHeaders()
+				.get(SearchCursor.NEXT_CURSOR_HEADER)
+		);
+	}
+}
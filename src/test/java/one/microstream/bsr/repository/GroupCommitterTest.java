@@ -0,0 +1,147 @@
+package one.microstream.bsr.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitterTest
+{
+	private static final Set<String> TAKEN = Set.of("taken");
+
+	private final AtomicInteger commits = new AtomicInteger();
+	private final List<String> committed = new ArrayList<>();
+	private GroupCommitter<String> committer;
+
+	@AfterEach
+	void close()
+	{
+		if (this.committer != null)
+		{
+			this.committer.close();
+		}
+	}
+
+	private GroupCommitter<String> committer(final int maxBatchSize, final Consumer<List<String>> commit)
+	{
+		this.committer = new GroupCommitter<>("test-group-commit", maxBatchSize, Duration.ofSeconds(5), batch ->
+		{
+			this.commits.incrementAndGet();
+			final List<String> accepted = new ArrayList<>();
+			for (final var pending : batch)
+			{
+				if (TAKEN.contains(pending.item()) || accepted.contains(pending.item()))
+				{
+					pending.reject(new IllegalArgumentException("Duplicate " + pending.item()));
+				}
+				else
+				{
+					accepted.add(pending.item());
+				}
+			}
+			commit.accept(accepted);
+		});
+		return this.committer;
+	}
+
+	private static List<CompletableFuture<Void>> submitAll(
+		final GroupCommitter<String> committer,
+		final String... items
+	)
+	{
+		final List<CompletableFuture<Void>> results = new ArrayList<>();
+		for (final String item : items)
+		{
+			final var result = new CompletableFuture<Void>();
+			Thread.ofVirtual().start(() ->
+			{
+				try
+				{
+					committer.submit(item);
+					result.complete(null);
+				}
+				catch (final Throwable t)
+				{
+					result.completeExceptionally(t);
+				}
+			});
+			results.add(result);
+		}
+		return results;
+	}
+
+	private static Throwable failureOf(final CompletableFuture<Void> result) throws Exception
+	{
+		try
+		{
+			result.get(10, TimeUnit.SECONDS);
+			return null;
+		}
+		catch (final ExecutionException e)
+		{
+			return e.getCause();
+		}
+	}
+
+	@Test
+	void duplicatesOnlyFailTheirCallerAndTheBatchIsCommittedOnce() throws Exception
+	{
+		final var committer = this.committer(4, this.committed::addAll);
+
+		final var results = submitAll(committer, "a", "taken", "b", "c");
+
+		Assertions.assertNull(failureOf(results.get(0)));
+		Assertions.assertTrue(failureOf(results.get(1)) instanceof IllegalArgumentException);
+		Assertions.assertNull(failureOf(results.get(2)));
+		Assertions.assertNull(failureOf(results.get(3)));
+		Assertions.assertEquals(1, this.commits.get());
+		Assertions.assertEquals(Set.of("a", "b", "c"), Set.copyOf(this.committed));
+	}
+
+	@Test
+	void exceptionOfTheWriterFailsTheBatchAndTheCommitterGoesOn() throws Exception
+	{
+		final var committer = this.committer(2, accepted ->
+		{
+			if (accepted.contains("fail"))
+			{
+				throw new IllegalStateException("commit failed");
+			}
+			this.committed.addAll(accepted);
+		});
+
+		final var failed = submitAll(committer, "fail", "other");
+		Assertions.assertTrue(failureOf(failed.get(0)) instanceof IllegalStateException);
+		Assertions.assertTrue(failureOf(failed.get(1)) instanceof IllegalStateException);
+
+		final var next = submitAll(committer, "next", "again");
+		Assertions.assertNull(failureOf(next.get(0)));
+		Assertions.assertNull(failureOf(next.get(1)));
+		Assertions.assertEquals(Set.of("next", "again"), Set.copyOf(this.committed));
+	}
+
+	@Test
+	void errorOfTheWriterFailsTheBatchAndShutsTheCommitterDown() throws Exception
+	{
+		final var committer = this.committer(2, accepted ->
+		{
+			throw new StackOverflowError();
+		});
+
+		final var failed = submitAll(committer, "a", "b");
+		Assertions.assertTrue(failureOf(failed.get(0)) instanceof StackOverflowError);
+		Assertions.assertTrue(failureOf(failed.get(1)) instanceof StackOverflowError);
+
+		final var next = submitAll(committer, "c").getFirst();
+		Assertions.assertTrue(failureOf(next) instanceof IllegalStateException);
+	}
+}
@@ -0,0 +1,70 @@
+package one.microstream.bsr.repository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import one.microstream.bsr.config.SearchCacheConfiguration;
+
+class SearchCacheTest
+{
+	private final VersionStamp stamp = new VersionStamp(false);
+	private final AtomicInteger searches = new AtomicInteger();
+
+	private List<String> search(final SearchCache<String> cache, final String query, final long afterId)
+	{
+		return cache.get(query, afterId, 0L, 20, () -> List.of(query + "#" + this.searches.incrementAndGet()));
+	}
+
+	@Test
+	void pagesAreServedFromTheCacheUntilTheNextMutation()
+	{
+		final var cache = new SearchCache<String>(new SearchCacheConfiguration(true, 100L), this.stamp);
+
+		final var first = this.search(cache, "title", 0L);
+		Assertions.assertEquals(first, this.search(cache, "title", 0L));
+		Assertions.assertEquals(1, this.searches.get());
+
+		this.stamp.mutate(() -> {});
+		final var second = this.search(cache, "title", 0L);
+		Assertions.assertNotEquals(first, second);
+		Assertions.assertEquals(second, this.search(cache, "title", 0L));
+		Assertions.assertEquals(2, this.searches.get());
+	}
+
+	@Test
+	void failedMutationsAlsoAdvanceTheEpoch()
+	{
+		final var cache = new SearchCache<String>(new SearchCacheConfiguration(true, 100L), this.stamp);
+		final var first = this.search(cache, "title", 0L);
+
+		Assertions.assertThrows(IllegalStateException.class, () -> this.stamp.mutate(() ->
+		{
+			throw new IllegalStateException("write failed");
+		}));
+		Assertions.assertNotEquals(first, this.search(cache, "title", 0L));
+	}
+
+	@Test
+	void pagesAreCachedPerQueryAndPosition()
+	{
+		final var cache = new SearchCache<String>(new SearchCacheConfiguration(true, 100L), this.stamp);
+
+		this.search(cache, "title", 0L);
+		this.search(cache, "title", 20L);
+		this.search(cache, "other", 0L);
+		Assertions.assertEquals(3, this.searches.get());
+	}
+
+	@Test
+	void disabledCacheAlwaysSearches()
+	{
+		final var cache = new SearchCache<String>(new SearchCacheConfiguration(false, 100L), this.stamp);
+
+		this.search(cache, "title", 0L);
+		this.search(cache, "title", 0L);
+		Assertions.assertEquals(2, this.searches.get());
+	}
+}